@@ -0,0 +1,173 @@
+package dev.spaceseries.spacechat.parser.mention;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of finding mentions in a chat message for different amounts of online players
+ * <p>
+ * The {@link MentionMatcher} looks up every word of a message once, so its cost should stay the same no matter how
+ * many players are online. A replaceText call per online name (the naive approach) is measured next to it.
+ */
+public final class MentionMatcherBenchmark {
+
+    /**
+     * The amounts of online players
+     */
+    private static final int[] ONLINE = {10, 100, 500, 2000};
+
+    /**
+     * How long every case is warmed up and measured
+     */
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MEASURE_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * Keeps the results alive, so the work isn't optimized away
+     */
+    private static volatile int sink;
+
+    private MentionMatcherBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        System.out.printf(Locale.ROOT, "%-8s %16s %16s%n", "online", "matcher ns/msg", "naive ns/msg");
+        for (int online : ONLINE) {
+            List<String> names = names(random, online);
+            List<Component> messages = messages(random, names);
+
+            MentionMatcher matcher = new MentionMatcher(false);
+            for (String name : names) {
+                matcher.add(name);
+            }
+
+            double matcherNanos = measure(messages, message -> matcher.find(message).size());
+            double naiveNanos = measure(messages, message -> naive(message, names).children().size());
+            System.out.printf(Locale.ROOT, "%-8d %16.0f %16.0f%n", online, matcherNanos, naiveNanos);
+        }
+    }
+
+    /**
+     * Highlights every online name with its own replaceText call
+     *
+     * @param message message
+     * @param names   online names
+     * @return highlighted message
+     */
+    private static Component naive(Component message, List<String> names) {
+        for (String name : names) {
+            message = message.replaceText(TextReplacementConfig.builder()
+                    .matchLiteral(name)
+                    .replacement(Component.text(name))
+                    .build());
+        }
+        return message;
+    }
+
+    /**
+     * Measures the average time of an operation over all messages
+     *
+     * @param messages  messages
+     * @param operation operation
+     * @return nanoseconds per message
+     */
+    private static double measure(List<Component> messages, Operation operation) {
+        run(messages, operation, WARMUP_NANOS);
+        long[] result = run(messages, operation, MEASURE_NANOS);
+        return (double) result[0] / result[1];
+    }
+
+    /**
+     * Runs an operation over the messages for (at least) a certain amount of time
+     *
+     * @param messages  messages
+     * @param operation operation
+     * @param duration  duration in nanoseconds
+     * @return the elapsed nanoseconds and the amount of operations
+     */
+    private static long[] run(List<Component> messages, Operation operation, long duration) {
+        long start = System.nanoTime();
+        long elapsed;
+        long count = 0;
+        int result = 0;
+        do {
+            for (Component message : messages) {
+                result += operation.run(message);
+            }
+            count += messages.size();
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < duration);
+        sink = result;
+        return new long[]{elapsed, count};
+    }
+
+    /**
+     * Creates random player names
+     *
+     * @param random random
+     * @param amount amount
+     * @return names
+     */
+    private static List<String> names(Random random, int amount) {
+        String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_";
+        List<String> names = new ArrayList<>(amount);
+        for (int i = 0; i < amount; i++) {
+            StringBuilder name = new StringBuilder();
+            int length = 3 + random.nextInt(14);
+            for (int j = 0; j < length; j++) {
+                name.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            names.add(name.toString());
+        }
+        return names;
+    }
+
+    /**
+     * Creates chat messages of about 10 words, some of them mentioning an online player
+     *
+     * @param random random
+     * @param names  online names
+     * @return messages
+     */
+    private static List<Component> messages(Random random, List<String> names) {
+        String[] words = {"hey", "does", "anyone", "want", "to", "trade", "diamonds", "for", "some", "iron", "lol", "gg"};
+        List<Component> messages = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            StringBuilder message = new StringBuilder();
+            for (int j = 0; j < 10; j++) {
+                if (j > 0) {
+                    message.append(' ');
+                }
+                if (random.nextInt(8) == 0) {
+                    message.append('@').append(names.get(random.nextInt(names.size())));
+                } else {
+                    message.append(words[random.nextInt(words.length)]);
+                }
+            }
+            messages.add(Component.text(message.toString()));
+        }
+        return messages;
+    }
+
+    /**
+     * An operation on a message
+     */
+    private interface Operation {
+
+        /**
+         * Runs the operation
+         *
+         * @param message message
+         * @return a result, so the work isn't optimized away
+         */
+        int run(Component message);
+    }
+}
@@ -44,6 +44,21 @@ public class Messages {
 
     // failure
     public Message reloadFailure;
+
+    /* Stats */
+
+    // placeholder cache
+    public Message statsPlaceholderCache;
+
+    // render cache
+    public Message statsRenderCache;
+
+    // deserialization cache
+    public Message statsDeserializationCache;
+
+    // render budget
+    public Message statsRenderBudget;
+
     /**
      * Broadcast
      */
@@ -179,6 +194,10 @@ public class Messages {
         generalHelp = Message.fromConfigurationSection("general.help", this.getLangConfiguration());
         reloadSuccess = Message.fromConfigurationSection("reload.success", this.getLangConfiguration());
         reloadFailure = Message.fromConfigurationSection("reload.failure", this.getLangConfiguration());
+        statsPlaceholderCache = Message.fromConfigurationSection("stats.placeholder-cache", this.getLangConfiguration());
+        statsRenderCache = Message.fromConfigurationSection("stats.render-cache", this.getLangConfiguration());
+        statsDeserializationCache = Message.fromConfigurationSection("stats.deserialization-cache", this.getLangConfiguration());
+        statsRenderBudget = Message.fromConfigurationSection("stats.render-budget", this.getLangConfiguration());
         broadcastArgs = Message.fromConfigurationSection("broadcast.args", this.getLangConfiguration());
         broadcastWrapper = Message.fromConfigurationSection("broadcast.wrapper", this.getLangConfiguration());
         chatDisabled = Message.fromConfigurationSection("chat.disabled", this.getLangConfiguration());
@@ -2,19 +2,31 @@ package dev.spaceseries.spacechat;
 
 import dev.spaceseries.spacechat.api.config.adapter.BukkitConfigAdapter;
 import dev.spaceseries.spacechat.api.message.Message;
+import dev.spaceseries.spacechat.builder.live.RenderBudget;
+import dev.spaceseries.spacechat.builder.live.RenderedLineCache;
 import dev.spaceseries.spacechat.channel.ChannelManager;
 import dev.spaceseries.spacechat.chat.ChatFormatManager;
 import dev.spaceseries.spacechat.chat.ChatManager;
 import dev.spaceseries.spacechat.chat.PrivateFormatManager;
+import dev.spaceseries.spacechat.chat.RelationalRenderPool;
 import dev.spaceseries.spacechat.command.CommandManager;
 import dev.spaceseries.spacechat.config.SpaceChatConfig;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import dev.spaceseries.spacechat.external.papi.PlaceholderCache;
 import dev.spaceseries.spacechat.external.papi.SpaceChatExpansion;
 import dev.spaceseries.spacechat.listener.ChatListener;
 import dev.spaceseries.spacechat.listener.JoinQuitListener;
+import dev.spaceseries.spacechat.listener.PaperChatListener;
 import dev.spaceseries.spacechat.logging.LogManagerImpl;
+import dev.spaceseries.spacechat.parser.MessageParser;
+import dev.spaceseries.spacechat.parser.emoji.EmojiReplacer;
+import dev.spaceseries.spacechat.parser.filter.ChatFilter;
+import dev.spaceseries.spacechat.parser.itemchat.ItemChatRenderer;
+import dev.spaceseries.spacechat.parser.mention.MentionMatcher;
 import dev.spaceseries.spacechat.storage.StorageManager;
 import dev.spaceseries.spacechat.sync.ServerSyncServiceManager;
 import dev.spaceseries.spacechat.user.UserManager;
+import dev.spaceseries.spacechat.util.component.DeserializationCache;
 import dev.spaceseries.spacechat.util.version.VersionUtil;
 //import io.github.slimjar.app.builder.ApplicationBuilder;
 import org.bstats.bukkit.Metrics;
@@ -85,10 +97,55 @@ public final class SpaceChatPlugin extends JavaPlugin {
      */
     private SpaceChatConfig channelsConfig;
 
+    /**
+     * Emojis config
+     */
+    private SpaceChatConfig emojisConfig;
+
     /**
      * Chat manager
      */
     private ChatManager chatManager;
+
+    /**
+     * Relational render pool
+     */
+    private RelationalRenderPool relationalRenderPool;
+
+    /**
+     * Item chat renderer
+     */
+    private ItemChatRenderer itemChatRenderer;
+
+    /**
+     * Chat filter
+     */
+    private ChatFilter chatFilter;
+
+    /**
+     * Mention matcher
+     */
+    private MentionMatcher mentionMatcher;
+
+    /**
+     * Emoji replacer
+     */
+    private EmojiReplacer emojiReplacer;
+
+    /**
+     * Message parser
+     */
+    private MessageParser messageParser;
+
+    /**
+     * Rendered line cache
+     */
+    private RenderedLineCache renderedLineCache;
+
+    /**
+     * Render budget
+     */
+    private RenderBudget renderBudget;
     /*
     @Override
     public void onLoad() {
@@ -111,10 +168,26 @@ public final class SpaceChatPlugin extends JavaPlugin {
 
         // load configs
         loadConfigs();
+        // load placeholder cache
+        loadPlaceholderCache();
+        // load deserialization cache
+        loadDeserializationCache();
+        // load item chat
+        loadItemChat();
+        loadChatFilter();
+        loadMentions();
+        loadEmojis();
+        loadRenderBudget();
+        // load message parser
+        loadMessageParser();
         // load formats
         loadFormats();
+        // load rendered line cache
+        loadRenderedLineCache();
         // load chat manager
         loadChatManager();
+        // load relational render pool
+        loadRelationalRenderPool();
         // load connection managers
         loadSyncServices();
 
@@ -139,8 +212,10 @@ public final class SpaceChatPlugin extends JavaPlugin {
         // initialize commands
         new CommandManager(this);
 
-        // register chat listener
-        this.getServer().getPluginManager().registerEvents(new ChatListener(this), this);
+        // register chat listener, Paper's own chat event is used if available
+        if (!SpaceChatConfigKeys.PAPER_USE_CHAT_EVENT.get(spaceChatConfig.getAdapter()) || !PaperChatListener.register(this)) {
+            this.getServer().getPluginManager().registerEvents(new ChatListener(this), this);
+        }
         // register join listener
         this.getServer().getPluginManager().registerEvents(new JoinQuitListener(this), this);
 
@@ -159,6 +234,10 @@ public final class SpaceChatPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        // stop render workers
+        if (relationalRenderPool != null)
+            relationalRenderPool.shutdown();
+
         // stop redis supervisor
         if (serverSyncServiceManager != null)
             serverSyncServiceManager.end();
@@ -199,6 +278,78 @@ public final class SpaceChatPlugin extends JavaPlugin {
         } else {
             langConfig = new SpaceChatConfig(provideConfigAdapter("lang.yml"));
         }
+
+        if (emojisConfig != null) {
+            emojisConfig.reload();
+        } else {
+            emojisConfig = new SpaceChatConfig(provideConfigAdapter("emojis.yml"));
+        }
+    }
+
+    /**
+     * Loads the placeholder cache
+     */
+    public void loadPlaceholderCache() {
+        PlaceholderCache.init(this);
+    }
+
+    /**
+     * Loads the deserialization cache
+     */
+    public void loadDeserializationCache() {
+        DeserializationCache.init(this);
+    }
+
+    /**
+     * Loads the item chat renderer
+     */
+    public void loadItemChat() {
+        this.itemChatRenderer = new ItemChatRenderer(this);
+    }
+
+    /**
+     * Loads the chat filter
+     */
+    public void loadChatFilter() {
+        this.chatFilter = new ChatFilter(this);
+    }
+
+    /**
+     * Loads the mention matcher
+     */
+    public void loadMentions() {
+        // stop refreshing the old names
+        if (mentionMatcher != null)
+            mentionMatcher.shutdown();
+
+        this.mentionMatcher = new MentionMatcher(this);
+    }
+
+    /**
+     * Loads the emoji replacer
+     */
+    public void loadEmojis() {
+        this.emojiReplacer = new EmojiReplacer(this);
+    }
+
+    /**
+     * Loads the render budget
+     */
+    public void loadRenderBudget() {
+        this.renderBudget = new RenderBudget(this);
+    }
+
+    /**
+     * Loads the message parser
+     * <p>
+     * Only the built-in parsers are recreated on reload, parsers registered by other plugins are kept
+     */
+    public void loadMessageParser() {
+        if (messageParser != null) {
+            messageParser.reload();
+        } else {
+            this.messageParser = new MessageParser(this);
+        }
     }
 
     /**
@@ -210,6 +361,13 @@ public final class SpaceChatPlugin extends JavaPlugin {
         privateFormatManager = new PrivateFormatManager(this);
     }
 
+    /**
+     * Loads the rendered line cache
+     */
+    public void loadRenderedLineCache() {
+        this.renderedLineCache = new RenderedLineCache(this);
+    }
+
     /**
      * Loads channels
      */
@@ -232,6 +390,17 @@ public final class SpaceChatPlugin extends JavaPlugin {
         this.chatManager = new ChatManager(this);
     }
 
+    /**
+     * Loads the relational render pool
+     */
+    public void loadRelationalRenderPool() {
+        // stop the old workers
+        if (relationalRenderPool != null)
+            relationalRenderPool.shutdown();
+
+        this.relationalRenderPool = new RelationalRenderPool(this);
+    }
+
     /**
      * Loads users
      * <p>
@@ -325,6 +494,15 @@ public final class SpaceChatPlugin extends JavaPlugin {
         return channelsConfig;
     }
 
+    /**
+     * Returns the emojis config
+     *
+     * @return emojis config
+     */
+    public SpaceChatConfig getEmojisConfig() {
+        return emojisConfig;
+    }
+
     /**
      * Returns the main space chat config
      *
@@ -405,4 +583,78 @@ public final class SpaceChatPlugin extends JavaPlugin {
     public ChatManager getChatManager() {
         return chatManager;
     }
+
+    /**
+     * Returns the message parser
+     * <p>
+     * Other plugins can register their own parsers here
+     *
+     * @return message parser
+     */
+    public MessageParser getMessageParser() {
+        return messageParser;
+    }
+
+    /**
+     * Returns the rendered line cache
+     *
+     * @return rendered line cache
+     */
+    public RenderedLineCache getRenderedLineCache() {
+        return renderedLineCache;
+    }
+
+    /**
+     * Returns the render budget
+     *
+     * @return render budget
+     */
+    public RenderBudget getRenderBudget() {
+        return renderBudget;
+    }
+
+    /**
+     * Returns the item chat renderer
+     *
+     * @return item chat renderer
+     */
+    public ItemChatRenderer getItemChatRenderer() {
+        return itemChatRenderer;
+    }
+
+    /**
+     * Returns the chat filter
+     *
+     * @return chat filter
+     */
+    public ChatFilter getChatFilter() {
+        return chatFilter;
+    }
+
+    /**
+     * Returns the mention matcher
+     *
+     * @return mention matcher
+     */
+    public MentionMatcher getMentionMatcher() {
+        return mentionMatcher;
+    }
+
+    /**
+     * Returns the emoji replacer
+     *
+     * @return emoji replacer
+     */
+    public EmojiReplacer getEmojiReplacer() {
+        return emojiReplacer;
+    }
+
+    /**
+     * Returns the relational render pool
+     *
+     * @return relational render pool
+     */
+    public RelationalRenderPool getRelationalRenderPool() {
+        return relationalRenderPool;
+    }
 }
@@ -59,6 +59,16 @@ public class BukkitConfigAdapter implements ConfigurationAdapter {
         return this.configuration.getInt(path, def);
     }
 
+    @Override
+    public double getDouble(String path) {
+        return this.configuration.getDouble(path);
+    }
+
+    @Override
+    public double getDouble(String path, double def) {
+        return this.configuration.getDouble(path, def);
+    }
+
     @Override
     public boolean getBoolean(String path) {
         return this.configuration.getBoolean(path);
@@ -19,6 +19,10 @@ public interface ConfigurationAdapter {
 
     int getInteger(String path, int def);
 
+    double getDouble(String path);
+
+    double getDouble(String path, double def);
+
     boolean getBoolean(String path);
 
     boolean getBoolean(String path, boolean def);
@@ -77,6 +77,11 @@ public class Message {
      */
     private final MessageOptions messageOptions;
 
+    /**
+     * The parsed message, with its replacers split out
+     */
+    private final MessageTemplate template;
+
     /**
      * Message
      *
@@ -87,6 +92,7 @@ public class Message {
         this.identifier = identifier;
         this.lines = lines;
         this.messageOptions = messageOptions;
+        this.template = MessageTemplate.compile(parse());
     }
 
     /**
@@ -116,6 +122,15 @@ public class Message {
         return messageOptions;
     }
 
+    /**
+     * Returns the template of the message
+     *
+     * @return template
+     */
+    public MessageTemplate getTemplate() {
+        return template;
+    }
+
     /**
      * Parses the message into a component
      *
@@ -163,7 +178,13 @@ public class Message {
      * @return component
      */
     public Component compile(String... replacers) {
-        return replace(parse(), replacers);
+        // replacers that aren't %placeholders% have no slot in the template
+        for (int i = 0; i < replacers.length; i += 2) {
+            if (!MessageTemplate.isSlotReplacer(replacers[i])) {
+                return replace(template.getComponent(), replacers);
+            }
+        }
+        return template.fill(replacers);
     }
 
     /**
@@ -173,7 +194,13 @@ public class Message {
      * @return component
      */
     public Component compile(Map<String, Component> replacers) {
-        return replace(parse(), replacers);
+        // replacers that aren't %placeholders% have no slot in the template
+        for (String replacer : replacers.keySet()) {
+            if (!MessageTemplate.isSlotReplacer(replacer)) {
+                return replace(template.getComponent(), replacers);
+            }
+        }
+        return template.fill(replacers);
     }
 
     /**
@@ -0,0 +1,364 @@
+package dev.spaceseries.spacechat.api.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.Style;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A parsed {@link Message}, with its %placeholder% replacers split out into indexed slots
+ * <p>
+ * The component tree is only walked once, when the template is created. Compiling the template afterwards only
+ * rebuilds the parts of the tree that contain a slot, everything else is shared between all compiled components.
+ * Replacers are matched case-insensitively, like the minedown replacer does.
+ */
+public final class MessageTemplate {
+
+    /**
+     * The placeholder character
+     */
+    private static final char PLACEHOLDER_CHAR = '%';
+
+    /**
+     * The parsed component
+     */
+    private final Component component;
+
+    /**
+     * The slot indexes, by their lowercase replacer (e.g. %user%)
+     */
+    private final Map<String, Integer> slots;
+
+    /**
+     * The root node, null if the template doesn't contain any slots
+     */
+    private final Node root;
+
+    /**
+     * Construct message template
+     *
+     * @param component parsed component
+     */
+    private MessageTemplate(Component component) {
+        this.component = component;
+        this.slots = new HashMap<>();
+        Node node = node(component);
+        this.root = slots.isEmpty() ? null : node;
+    }
+
+    /**
+     * Compiles a parsed component into a template
+     *
+     * @param component component
+     * @return template
+     */
+    public static MessageTemplate compile(Component component) {
+        return new MessageTemplate(component);
+    }
+
+    /**
+     * Returns the parsed component, without any replacements
+     *
+     * @return component
+     */
+    public Component getComponent() {
+        return component;
+    }
+
+    /**
+     * Returns true if the template contains any slots
+     *
+     * @return has slots
+     */
+    public boolean hasSlots() {
+        return root != null;
+    }
+
+    /**
+     * Returns true if the replacer can be handled by the template
+     * <p>
+     * Only %placeholder% style replacers are split into slots
+     *
+     * @param replacer replacer
+     * @return is slot replacer
+     */
+    public static boolean isSlotReplacer(String replacer) {
+        return replacer.length() > 2 && replacer.charAt(0) == PLACEHOLDER_CHAR
+                && replacer.charAt(replacer.length() - 1) == PLACEHOLDER_CHAR
+                && isPlaceholderName(replacer, 1, replacer.length() - 1);
+    }
+
+    /**
+     * Fills the slots with replacers
+     *
+     * @param replacers replacers, alternating between the replacer and its (string) value
+     * @return component
+     */
+    public Component fill(String... replacers) {
+        if (root == null) {
+            return component;
+        }
+
+        Object[] values = new Object[slots.size()];
+        for (int i = 0; i + 1 < replacers.length; i += 2) {
+            Integer slot = slots.get(replacers[i].toLowerCase(Locale.ROOT));
+            if (slot != null && values[slot] == null) {
+                values[slot] = replacers[i + 1];
+            }
+        }
+        return root.render(values);
+    }
+
+    /**
+     * Fills the slots with replacers
+     *
+     * @param replacers replacers, by the replacer
+     * @return component
+     */
+    public Component fill(Map<String, Component> replacers) {
+        if (root == null) {
+            return component;
+        }
+
+        Object[] values = new Object[slots.size()];
+        for (Map.Entry<String, Component> entry : replacers.entrySet()) {
+            Integer slot = slots.get(entry.getKey().toLowerCase(Locale.ROOT));
+            if (slot != null && values[slot] == null) {
+                values[slot] = entry.getValue();
+            }
+        }
+        return root.render(values);
+    }
+
+    /**
+     * Creates the node of a component, or null if the component (and its children) doesn't contain any slots
+     *
+     * @param component component
+     * @return node
+     */
+    private Node node(Component component) {
+        List<Object> content = component instanceof TextComponent ? split(((TextComponent) component).content()) : null;
+
+        // hover text and click value
+        HoverEvent<?> hoverEvent = component.hoverEvent();
+        Node hover = hoverEvent != null && hoverEvent.action() == HoverEvent.Action.SHOW_TEXT ? node((Component) hoverEvent.value()) : null;
+        ClickEvent clickEvent = component.clickEvent();
+        List<Object> click = clickEvent != null ? split(clickEvent.value()) : null;
+        List<Object> insertion = component.insertion() != null ? split(component.insertion()) : null;
+
+        // children
+        boolean slotted = content != null || hover != null || click != null || insertion != null;
+        List<Object> children = new ArrayList<>(component.children().size());
+        for (Component child : component.children()) {
+            Node node = node(child);
+            children.add(node != null ? node : child);
+            slotted |= node != null;
+        }
+
+        return slotted ? new Node(component, content, hover, click, insertion, children) : null;
+    }
+
+    /**
+     * Splits text into literals and slot indexes
+     *
+     * @param text text
+     * @return the segments (strings and integers), or null if the text doesn't contain any slots
+     */
+    private List<Object> split(String text) {
+        List<Object> segments = null;
+        int literalStart = 0;
+        int start = text.indexOf(PLACEHOLDER_CHAR);
+
+        while (start != -1) {
+            int end = text.indexOf(PLACEHOLDER_CHAR, start + 1);
+            if (end == -1) {
+                break;
+            }
+
+            // not a placeholder (e.g. "50% of 20%"), the closing character may start the next one
+            if (!isPlaceholderName(text, start + 1, end)) {
+                start = end;
+                continue;
+            }
+
+            if (segments == null) {
+                segments = new ArrayList<>();
+            }
+            if (start > literalStart) {
+                segments.add(text.substring(literalStart, start));
+            }
+            segments.add(slots.computeIfAbsent(text.substring(start, end + 1).toLowerCase(Locale.ROOT), k -> slots.size()));
+
+            literalStart = end + 1;
+            start = text.indexOf(PLACEHOLDER_CHAR, literalStart);
+        }
+
+        if (segments != null && literalStart < text.length()) {
+            segments.add(text.substring(literalStart));
+        }
+        return segments;
+    }
+
+    /**
+     * Returns true if the text between the indexes is a valid placeholder name (no whitespace, not empty)
+     *
+     * @param text  text
+     * @param start start (inclusive)
+     * @param end   end (exclusive)
+     * @return is placeholder name
+     */
+    private static boolean isPlaceholderName(String text, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot string of the segments
+     * Component values are inserted as their plain text
+     *
+     * @param segments segments
+     * @param values   values, by slot
+     * @return string
+     */
+    private String string(List<Object> segments, Object[] values) {
+        StringBuilder builder = new StringBuilder();
+        for (Object segment : segments) {
+            if (segment instanceof String) {
+                builder.append((String) segment);
+            } else {
+                Object value = values[(Integer) segment];
+                if (value == null) {
+                    builder.append(replacer((Integer) segment));
+                } else if (value instanceof Component) {
+                    appendPlain(builder, (Component) value);
+                } else {
+                    builder.append(value);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the replacer of a slot
+     *
+     * @param slot slot
+     * @return replacer
+     */
+    private String replacer(int slot) {
+        for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+            if (entry.getValue() == slot) {
+                return entry.getKey();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Appends the plain text of a component
+     *
+     * @param builder   builder
+     * @param component component
+     */
+    private static void appendPlain(StringBuilder builder, Component component) {
+        if (component instanceof TextComponent) {
+            builder.append(((TextComponent) component).content());
+        }
+        for (Component child : component.children()) {
+            appendPlain(builder, child);
+        }
+    }
+
+    /**
+     * A component of the template that contains slots
+     */
+    private final class Node {
+
+        private final Component component;
+
+        // null if they don't contain any slots
+        private final List<Object> content;
+        private final Node hover;
+        private final List<Object> click;
+        private final List<Object> insertion;
+
+        // either a node or a component
+        private final List<Object> children;
+
+        private Node(Component component, List<Object> content, Node hover, List<Object> click, List<Object> insertion, List<Object> children) {
+            this.component = component;
+            this.content = content;
+            this.hover = hover;
+            this.click = click;
+            this.insertion = insertion;
+            this.children = children;
+        }
+
+        /**
+         * Renders the node
+         *
+         * @param values values, by slot
+         * @return component
+         */
+        private Component render(Object[] values) {
+            Component rendered = component;
+
+            // style
+            if (hover != null || click != null || insertion != null) {
+                Style.Builder style = rendered.style().toBuilder();
+                if (hover != null) {
+                    style.hoverEvent(HoverEvent.showText(hover.render(values)));
+                }
+                if (click != null) {
+                    style.clickEvent(ClickEvent.clickEvent(rendered.clickEvent().action(), string(click, values)));
+                }
+                if (insertion != null) {
+                    style.insertion(string(insertion, values));
+                }
+                rendered = rendered.style(style.build());
+            }
+
+            // children, the slots of the content come first
+            List<Component> renderedChildren = new ArrayList<>(children.size() + (content != null ? content.size() : 0));
+            if (content != null) {
+                String leading = content.get(0) instanceof String ? (String) content.get(0) : "";
+                rendered = ((TextComponent) rendered).content(leading);
+
+                for (int i = leading.isEmpty() ? 0 : 1; i < content.size(); i++) {
+                    Object segment = content.get(i);
+                    if (segment instanceof String) {
+                        renderedChildren.add(Component.text((String) segment));
+                        continue;
+                    }
+
+                    Object value = values[(Integer) segment];
+                    if (value instanceof Component) {
+                        renderedChildren.add((Component) value);
+                    } else {
+                        renderedChildren.add(Component.text(value != null ? (String) value : replacer((Integer) segment)));
+                    }
+                }
+            }
+            for (Object child : children) {
+                renderedChildren.add(child instanceof Node ? ((Node) child).render(values) : (Component) child);
+            }
+
+            return rendered.children(renderedChildren.isEmpty() ? Collections.emptyList() : renderedChildren);
+        }
+    }
+}
@@ -51,6 +51,9 @@ public class FormatPartBuilder implements Builder<Pair<String, ConfigurationAdap
                 formatPart.setLine(line);
             }
 
+            // compile the text (or line) once, so it doesn't have to be parsed for every message
+            formatPart.setTemplate(new FormatPartTemplateBuilder().build(formatPart));
+
             // add format part
             formatPartList.add(formatPart);
         }
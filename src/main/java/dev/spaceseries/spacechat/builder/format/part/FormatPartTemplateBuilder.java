@@ -0,0 +1,33 @@
+package dev.spaceseries.spacechat.builder.format.part;
+
+import dev.spaceseries.spacechat.builder.Builder;
+import dev.spaceseries.spacechat.external.papi.PlaceholderTemplate;
+import dev.spaceseries.spacechat.model.formatting.FormatPart;
+import dev.spaceseries.spacechat.model.formatting.FormatPartTemplate;
+import dev.spaceseries.spacechat.util.color.ColorCodec;
+
+public class FormatPartTemplateBuilder implements Builder<FormatPart, FormatPartTemplate> {
+
+    /**
+     * Compiles a format part into a template
+     *
+     * @param input The format part
+     * @return The template
+     */
+    @Override
+    public FormatPartTemplate build(FormatPart input) {
+        // if the part has "line", it is a SINGLE MiniMessage
+        boolean miniMessage = input.getLine() != null;
+
+        String source = miniMessage ? input.getLine() : input.getText();
+        if (source == null) {
+            source = "";
+        }
+
+        // the live builders turn every section sign into an ampersand after replacing placeholders,
+        // so do that for the static text once here
+        source = ColorCodec.sectionToAmpersand(source);
+
+        return new FormatPartTemplate(PlaceholderTemplate.compile(source), miniMessage);
+    }
+}
@@ -0,0 +1,52 @@
+package dev.spaceseries.spacechat.builder.live;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.wrapper.Pair;
+import dev.spaceseries.spacechat.builder.Builder;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.model.formatting.ChatMessageBody;
+import me.mattstudios.msg.adventure.AdventureMessage;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.ChatColor;
+
+public class ChatMessageBodyBuilder extends LiveChatFormatBuilder implements Builder<Pair<String, SenderCapabilities>, ChatMessageBody> {
+
+    public ChatMessageBodyBuilder(SpaceChatPlugin plugin) {
+        super(plugin);
+    }
+
+    /**
+     * Renders the body of a chat message
+     *
+     * @param input The message and the capabilities of its sender
+     * @return The body
+     */
+    @Override
+    public ChatMessageBody build(Pair<String, SenderCapabilities> input) {
+        String messageString = input.getLeft();
+        SenderCapabilities capabilities = input.getRight();
+
+        // get chat message (formatted)
+        Component parsed = AdventureMessage.create(capabilities.getMessageOptions()).parse(messageString);
+
+        // keep huge messages (e.g. long gradients) from slowing down the chat for everyone
+        RenderBudget budget = plugin.getRenderBudget();
+        if (!budget.fits(parsed)) {
+            budget.recordExceeded();
+
+            // drop the per-character formats first, then all formatting
+            parsed = AdventureMessage.create(capabilities.getReducedMessageOptions()).parse(messageString);
+            if (!budget.fits(parsed)) {
+                budget.recordPlain();
+                parsed = Component.text(messageString);
+            }
+        }
+        String chatMessage = LegacyComponentSerializer.legacySection().serialize(parsed);
+        if (chatMessage.startsWith(ChatColor.WHITE.toString()) && !messageString.startsWith("&f")) {
+            chatMessage = chatMessage.substring(2);
+        }
+
+        return new ChatMessageBody(messageString, parsed, chatMessage, capabilities, plugin.getMessageParser());
+    }
+}
@@ -2,38 +2,25 @@ package dev.spaceseries.spacechat.builder.live;
 
 import dev.spaceseries.spacechat.SpaceChatPlugin;
 import dev.spaceseries.spacechat.api.wrapper.Trio;
+import dev.spaceseries.spacechat.api.wrapper.Pair;
 import dev.spaceseries.spacechat.builder.Builder;
 import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.model.formatting.ChatMessageBody;
 import dev.spaceseries.spacechat.model.formatting.Extra;
 import dev.spaceseries.spacechat.model.formatting.Format;
-import dev.spaceseries.spacechat.parser.MessageParser;
-import dev.spaceseries.spacechat.replacer.AmpersandReplacer;
-import dev.spaceseries.spacechat.replacer.SectionReplacer;
-import me.clip.placeholderapi.PlaceholderAPI;
-import me.mattstudios.msg.adventure.AdventureMessage;
-import me.mattstudios.msg.base.MessageOptions;
+import dev.spaceseries.spacechat.model.formatting.FormatPart;
+import dev.spaceseries.spacechat.model.formatting.FormatPartTemplate;
+import dev.spaceseries.spacechat.model.formatting.action.ClickAction;
+import dev.spaceseries.spacechat.model.formatting.action.HoverAction;
+import dev.spaceseries.spacechat.util.component.ComponentNormalizer;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.ComponentBuilder;
 import net.kyori.adventure.text.TextComponent;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
-import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
-import java.util.Locale;
-
 public class NormalLiveChatFormatBuilder extends LiveChatFormatBuilder implements Builder<Trio<Player, String, Format>, TextComponent> {
 
-    /**
-     * Ampersand replacer
-     */
-    private static final AmpersandReplacer AMPERSAND_REPLACER = new AmpersandReplacer();
-
-    /**
-     * Section replacer
-     */
-    private static final SectionReplacer SECTION_REPLACER = new SectionReplacer();
-
     public NormalLiveChatFormatBuilder(SpaceChatPlugin plugin) {
         super(plugin);
     }
@@ -46,98 +33,107 @@ public class NormalLiveChatFormatBuilder extends LiveChatFormatBuilder implement
      */
     @Override
     public TextComponent build(Trio<Player, String, Format> input) {
-        // get input parameters
-        Player player = input.getLeft();
-        String messageString = input.getMid();
-        Format format = input.getRight();
-
-        // create component builder for message
-        ComponentBuilder<TextComponent, TextComponent.Builder> componentBuilder = Component.text();
+        SenderCapabilities capabilities = SenderCapabilities.of(input.getLeft(), plugin.getSpaceChatConfig().getAdapter());
+        return build(input.getLeft(), new ChatMessageBodyBuilder(plugin).build(new Pair<>(input.getMid(), capabilities)), input.getRight());
+    }
 
-        // loop through format parts
-        format.getFormatParts().forEach(formatPart -> {
-            // create component builder
-            ComponentBuilder<TextComponent, TextComponent.Builder> partComponentBuilder = Component.text();
-            // if the part has "line", it is a SINGLE MiniMessage...in that case, just parse & return (continues to next part if exists, which it shouldn't)
-            if (formatPart.getLine() != null) {
-                // replace placeholders
-                String mmWithPlaceholdersReplaced = SECTION_REPLACER.apply(PlaceholderAPI.setPlaceholders(player, AMPERSAND_REPLACER.apply(formatPart.getLine(), player)), player);
-
-                // get chat message (formatted)
-                MessageOptions.Builder messageOptionsBuilder = MessageOptions.builder(me.mattstudios.msg.base.internal.Format.NONE);
-                if (player != null && player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_COLORS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-                    messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.COLOR);
-                    messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.HEX);
-                    messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.GRADIENT);
-                    messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.RAINBOW);
-                }
-                String formattingPermission = SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_FORMATTING.get(plugin.getSpaceChatConfig().getAdapter());
-                for (me.mattstudios.msg.base.internal.Format f : me.mattstudios.msg.base.internal.Format.ALL) {
-                    if (player != null && player.hasPermission(formattingPermission + f.name().toLowerCase(Locale.ROOT))) {
-                        messageOptionsBuilder.addFormat(f);
-                    }
-                }
+    /**
+     * Builds an array of baseComponents from an already rendered message, player, and format
+     * <p>
+     * Lines that were rendered recently with the exact same placeholders and message are reused
+     *
+     * @param player The player
+     * @param body   The rendered message
+     * @param format The format
+     * @return The array of baseComponents
+     */
+    public TextComponent build(Player player, ChatMessageBody body, Format format) {
+        String[] values = resolve(player, format);
 
-                String chatMessage = LegacyComponentSerializer.legacySection().serialize(AdventureMessage.create(messageOptionsBuilder.build()).parse(messageString));
-                if (chatMessage.startsWith(ChatColor.WHITE.toString()) && !messageString.startsWith("&f")) {
-                    chatMessage = chatMessage.substring(2);
-                }
+        RenderedLineCache cache = plugin.getRenderedLineCache();
+        if (!cache.isEnabled()) {
+            return assemble(body, format, values);
+        }
+        if (!plugin.getMessageParser().isDeterministic(body.getCapabilities(), body.getRaw())) {
+            cache.recordUncacheable();
+            return assemble(body, format, values);
+        }
 
-                // parse message
-                Component message = new MessageParser(plugin).parse(player, Component.text(chatMessage));
+        RenderedLineCache.Key key = new RenderedLineCache.Key(format, body.getCapabilities(), values, body.getRaw());
+        TextComponent line = cache.get(key);
+        if (line == null) {
+            line = assemble(body, format, values);
+            cache.put(key, line);
+        }
+        return line;
+    }
 
-                // parse miniMessage
-                Component parsedMiniMessage = MiniMessage.miniMessage().deserialize(mmWithPlaceholdersReplaced);
+    /**
+     * Resolves the placeholders of every part of a format
+     *
+     * @param player The player
+     * @param format The format
+     * @return The text, hover and click value of every part, null if they don't apply
+     */
+    private String[] resolve(Player player, Format format) {
+        String[] values = new String[format.getFormatParts().size() * 3];
 
-                // replace chat message
-                parsedMiniMessage = parsedMiniMessage.replaceText((text) -> text.match("<chat_message>").replacement(message));
+        int i = 0;
+        for (FormatPart formatPart : format.getFormatParts()) {
+            FormatPartTemplate template = formatPart.getTemplate();
 
-                // parse MiniMessage into builder
-                partComponentBuilder.append(parsedMiniMessage);
-                // append partComponentBuilder to main builder
-                componentBuilder.append(partComponentBuilder.build());
-                return;
+            // turning section signs into ampersands bypasses PAPI's hacky way of coloring text which shouldn't even be implemented...
+            if (!template.isStatic()) {
+                values[i] = template.getPlaceholders().resolveSectionToAmpersand(player);
             }
 
-            String text = formatPart.getText();
-
-            // basically what I am doing here is converting & -> section, then replacing placeholders, then section -> &
-            // this just bypasses PAPI's hacky way of coloring text which shouldn't even be implemented...
-            text = SECTION_REPLACER.apply(PlaceholderAPI.setPlaceholders(player, AMPERSAND_REPLACER.apply(text, player)), player);
-
-            // build text from legacy (and replace <chat_message> with the actual message)
-            // and check permissions for chat colors
-            Component parsedText;
-
-            // get chat message (formatted)
-            MessageOptions.Builder messageOptionsBuilder = MessageOptions.builder(me.mattstudios.msg.base.internal.Format.NONE);
-            if (player != null && player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_COLORS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-                messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.COLOR);
-                messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.HEX);
-                messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.GRADIENT);
-                messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.RAINBOW);
+            // extras are only used by legacy text parts, the pre-built events don't have to be resolved
+            Extra extra = template.isMiniMessage() ? null : formatPart.getExtra();
+            if (extra != null && extra.getHoverAction() != null && !extra.getHoverAction().isStatic()) {
+                values[i + 1] = extra.getHoverAction().resolve(player);
             }
-            String formattingPermission = SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_FORMATTING.get(plugin.getSpaceChatConfig().getAdapter());
-            for (me.mattstudios.msg.base.internal.Format f : me.mattstudios.msg.base.internal.Format.ALL) {
-                if (player != null && player.hasPermission(formattingPermission + f.name().toLowerCase(Locale.ROOT))) {
-                    messageOptionsBuilder.addFormat(f);
-                }
+            if (extra != null && extra.getClickAction() != null && !extra.getClickAction().isStatic()) {
+                values[i + 2] = extra.getClickAction().resolve(player);
             }
+            i += 3;
+        }
+        return values;
+    }
 
-            // need to convert back to legacy in order to handle links als mf-msg can't do that
-            String chatMessage = LegacyComponentSerializer.legacySection().serialize(AdventureMessage.create(messageOptionsBuilder.build()).parse(messageString));
-            if (chatMessage.startsWith(ChatColor.WHITE.toString()) && !messageString.startsWith("&f")) {
-                chatMessage = chatMessage.substring(2);
-            }
+    /**
+     * Assembles a format from its resolved placeholders
+     *
+     * @param body   The rendered message
+     * @param format The format
+     * @param values The values returned by {@link #resolve(Player, Format)}
+     * @return The array of baseComponents
+     */
+    private TextComponent assemble(ChatMessageBody body, Format format, String[] values) {
+        // create component builder for message
+        ComponentBuilder<TextComponent, TextComponent.Builder> componentBuilder = Component.text();
+
+        // loop through format parts
+        int i = 0;
+        for (FormatPart formatPart : format.getFormatParts()) {
+            // create component builder
+            ComponentBuilder<TextComponent, TextComponent.Builder> partComponentBuilder = Component.text();
+            FormatPartTemplate template = formatPart.getTemplate();
 
-            Component messageComponent = computeChatMessageComponentSerializer(player)
-                    .deserialize(chatMessage);
+            // use the pre-compiled part if it doesn't contain placeholders, otherwise compile the resolved text
+            Component compiledPart = template.isStatic() ? template.getStaticComponent() : template.compile(values[i]);
 
-            parsedText = LegacyComponentSerializer.legacyAmpersand().deserialize(text)
-                    .replaceText((b) -> b.matchLiteral("<chat_message>").replacement(messageComponent));
+            // if the part has "line", it is a SINGLE MiniMessage...in that case, just parse & return (continues to next part if exists, which it shouldn't)
+            if (template.isMiniMessage()) {
+                // fill the rendered chat message into the compiled MiniMessage and add it to the builder
+                partComponentBuilder.append(FormatPartTemplate.fill(compiledPart, body.getLineComponent()));
+                // append partComponentBuilder to main builder
+                componentBuilder.append(partComponentBuilder.build());
+                i += 3;
+                continue;
+            }
 
-            // parse message
-            parsedText = new MessageParser(plugin).parse(player, parsedText);
+            // fill the compiled text with the rendered chat message
+            Component parsedText = FormatPartTemplate.fill(compiledPart, body.getComponent());
 
             /* Retaining events for MULTIPLE components */
 
@@ -146,15 +142,17 @@ public class NormalLiveChatFormatBuilder extends LiveChatFormatBuilder implement
                 Extra extra = formatPart.getExtra();
 
                 // if contains click action
-                if (extra.getClickAction() != null) {
+                ClickAction clickAction = extra.getClickAction();
+                if (clickAction != null) {
                     // apply
-                    parsedText = parsedText.clickEvent(extra.getClickAction().toClickEvent(player));
+                    parsedText = parsedText.clickEvent(clickAction.isStatic() ? clickAction.getClickEvent() : clickAction.toClickEvent(values[i + 2]));
                 }
 
                 // if contains hover action
-                if (extra.getHoverAction() != null) {
+                HoverAction hoverAction = extra.getHoverAction();
+                if (hoverAction != null) {
                     // apply
-                    parsedText = parsedText.hoverEvent(extra.getHoverAction().toHoverEvent(player));
+                    parsedText = parsedText.hoverEvent(hoverAction.isStatic() ? hoverAction.getHoverEvent() : hoverAction.toHoverEvent(values[i + 1]));
                 }
             }
 
@@ -162,30 +160,11 @@ public class NormalLiveChatFormatBuilder extends LiveChatFormatBuilder implement
 
             // append build partComponentBuilder to main componentBuilder
             componentBuilder.append(partComponentBuilder.build());
-        });
-
-        // return built component builder
-        return componentBuilder.build();
-    }
-
-    /**
-     * Computes the legacy component serializer based on player context for chat messages
-     *
-     * @param player player
-     * @return legacy component serializer
-     */
-    private LegacyComponentSerializer computeChatMessageComponentSerializer(Player player) {
-        LegacyComponentSerializer.Builder legacyComponentSerializerBuilder = LegacyComponentSerializer.builder();
-
-        if (player != null && player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_COLORS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-            legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.hexColors();
-            legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.character('&');
-        }
-
-        if (player != null && player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_LINKS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-            legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.extractUrls();
+            i += 3;
         }
 
-        return legacyComponentSerializerBuilder.build();
+        // return built component builder, without the redundant wrappers and styles
+        TextComponent line = componentBuilder.build();
+        return SpaceChatConfigKeys.NORMALIZE_COMPONENTS.get(plugin.getSpaceChatConfig().getAdapter()) ? ComponentNormalizer.normalize(line) : line;
     }
 }
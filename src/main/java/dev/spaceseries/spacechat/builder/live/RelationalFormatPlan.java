@@ -0,0 +1,280 @@
+package dev.spaceseries.spacechat.builder.live;
+
+import dev.spaceseries.spacechat.model.formatting.ChatMessageBody;
+import dev.spaceseries.spacechat.model.formatting.Extra;
+import dev.spaceseries.spacechat.model.formatting.Format;
+import dev.spaceseries.spacechat.model.formatting.FormatPart;
+import dev.spaceseries.spacechat.model.formatting.FormatPartTemplate;
+import dev.spaceseries.spacechat.model.formatting.action.ClickAction;
+import dev.spaceseries.spacechat.model.formatting.action.HoverAction;
+import dev.spaceseries.spacechat.util.color.ColorCodec;
+import dev.spaceseries.spacechat.util.component.ComponentNormalizer;
+import me.clip.placeholderapi.PlaceholderAPI;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentBuilder;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A relational format, prepared for a single message
+ * <p>
+ * Everything that doesn't depend on the viewer (regular placeholders, the message body, parts without relational
+ * placeholders) is rendered once. Only the relational placeholders are resolved for every viewer, and viewers that end
+ * up with the exact same relational values share the same component.
+ */
+public class RelationalFormatPlan {
+
+    /**
+     * The player that sent the message
+     */
+    private final Player player;
+
+    /**
+     * The parts of the format
+     * Either a fully rendered {@link Component} or a {@link RelationalPart}
+     */
+    private final List<Object> parts;
+
+    /**
+     * The rendered components, by their resolved relational values
+     */
+    private final Map<List<String>, TextComponent> rendered = new ConcurrentHashMap<>();
+
+    /**
+     * If rendered components are normalized
+     */
+    private final boolean normalize;
+
+    /**
+     * Construct relational format plan
+     *
+     * @param player    player
+     * @param body      the rendered message
+     * @param format    format
+     * @param normalize if rendered components are normalized
+     */
+    public RelationalFormatPlan(Player player, ChatMessageBody body, Format format, boolean normalize) {
+        this.player = player;
+        this.normalize = normalize;
+        this.parts = new ArrayList<>(format.getFormatParts().size());
+
+        for (FormatPart formatPart : format.getFormatParts()) {
+            RelationalPart part = new RelationalPart(player, body, formatPart);
+            parts.add(part.isRelational() ? part : part.render(Collections.emptyIterator()));
+        }
+    }
+
+    /**
+     * Renders the format for a viewer
+     *
+     * @param viewer viewer
+     * @return component
+     */
+    public TextComponent render(Player viewer) {
+        // resolve the relational placeholders of the viewer
+        List<String> values = new ArrayList<>();
+        for (Object part : parts) {
+            if (part instanceof RelationalPart) {
+                ((RelationalPart) part).resolve(player, viewer, values);
+            }
+        }
+
+        // viewers with the same relational values get the same component
+        return rendered.computeIfAbsent(values, this::assemble);
+    }
+
+    /**
+     * Renders the format without resolving relational placeholders
+     * <p>
+     * Used for logging
+     *
+     * @return component
+     */
+    public TextComponent renderSample() {
+        List<String> values = new ArrayList<>();
+        for (Object part : parts) {
+            if (part instanceof RelationalPart) {
+                ((RelationalPart) part).keep(values);
+            }
+        }
+        return assemble(values);
+    }
+
+    /**
+     * Assembles the format from resolved relational values
+     *
+     * @param values values, in the order they were resolved
+     * @return component
+     */
+    private TextComponent assemble(List<String> values) {
+        // create component builder for message
+        ComponentBuilder<TextComponent, TextComponent.Builder> componentBuilder = Component.text();
+
+        Iterator<String> iterator = values.iterator();
+        for (Object part : parts) {
+            componentBuilder.append(part instanceof RelationalPart ? ((RelationalPart) part).render(iterator) : (Component) part);
+        }
+
+        TextComponent line = componentBuilder.build();
+        return normalize ? ComponentNormalizer.normalize(line) : line;
+    }
+
+    /**
+     * A single format part
+     */
+    private static final class RelationalPart {
+
+        private final ChatMessageBody body;
+        private final FormatPartTemplate template;
+
+        // partially resolved text, hover and click (null if they don't contain relational placeholders)
+        private final String text;
+        private final String hover;
+        private final String click;
+
+        private final HoverAction hoverAction;
+        private final ClickAction clickAction;
+
+        // viewer independent results
+        private final Component compiledPart;
+        private final HoverEvent<Component> hoverEvent;
+        private final ClickEvent clickEvent;
+
+        private RelationalPart(Player player, ChatMessageBody body, FormatPart formatPart) {
+            this.body = body;
+            this.template = formatPart.getTemplate();
+
+            // turning section signs into ampersands bypasses PAPI's hacky way of coloring text which shouldn't even be implemented...
+            if (template.isStatic()) {
+                this.text = null;
+                this.compiledPart = template.getStaticComponent();
+            } else {
+                String partially = template.getPlaceholders().resolveSectionToAmpersand(player);
+                boolean relational = template.getPlaceholders().hasRelationalPlaceholders();
+                this.text = relational ? partially : null;
+                this.compiledPart = relational ? null : template.compile(partially);
+            }
+
+            // extras are only used by legacy text parts
+            Extra extra = template.isMiniMessage() ? null : formatPart.getExtra();
+            this.hoverAction = extra != null ? extra.getHoverAction() : null;
+            this.clickAction = extra != null ? extra.getClickAction() : null;
+
+            if (hoverAction != null && hoverAction.isStatic()) {
+                this.hover = null;
+                this.hoverEvent = hoverAction.getHoverEvent();
+            } else if (hoverAction != null) {
+                String partially = hoverAction.resolveRelationalPartially(player);
+                this.hover = hoverAction.hasRelationalPlaceholders() ? partially : null;
+                this.hoverEvent = hover == null ? hoverAction.toHoverEvent(partially) : null;
+            } else {
+                this.hover = null;
+                this.hoverEvent = null;
+            }
+
+            if (clickAction != null && clickAction.isStatic()) {
+                this.click = null;
+                this.clickEvent = clickAction.getClickEvent();
+            } else if (clickAction != null) {
+                String partially = clickAction.resolveRelationalPartially(player);
+                this.click = clickAction.hasRelationalPlaceholders() ? partially : null;
+                this.clickEvent = click == null ? clickAction.toClickEvent(partially) : null;
+            } else {
+                this.click = null;
+                this.clickEvent = null;
+            }
+        }
+
+        /**
+         * Returns true if anything of the part depends on the viewer
+         *
+         * @return is relational
+         */
+        private boolean isRelational() {
+            return text != null || hover != null || click != null;
+        }
+
+        /**
+         * Resolves the relational placeholders of the part for a viewer
+         *
+         * @param player player
+         * @param viewer viewer
+         * @param values the values to add to
+         */
+        private void resolve(Player player, Player viewer, List<String> values) {
+            if (text != null) {
+                values.add(ColorCodec.sectionToAmpersand(PlaceholderAPI.setRelationalPlaceholders(player, viewer, text)));
+            }
+            if (hover != null) {
+                values.add(hoverAction.resolveRelational(player, viewer, hover));
+            }
+            if (click != null) {
+                values.add(clickAction.resolveRelational(player, viewer, click));
+            }
+        }
+
+        /**
+         * Adds the partially resolved values of the part, without resolving relational placeholders
+         *
+         * @param values the values to add to
+         */
+        private void keep(List<String> values) {
+            if (text != null) {
+                values.add(text);
+            }
+            if (hover != null) {
+                values.add(hover);
+            }
+            if (click != null) {
+                values.add(click);
+            }
+        }
+
+        /**
+         * Renders the part
+         *
+         * @param values the resolved values, in the same order as {@link #resolve(Player, Player, List)} added them
+         * @return component
+         */
+        private Component render(Iterator<String> values) {
+            // create component builder
+            ComponentBuilder<TextComponent, TextComponent.Builder> partComponentBuilder = Component.text();
+
+            Component compiled = text != null ? template.compile(values.next()) : compiledPart;
+
+            // if the part has "line", it is a SINGLE MiniMessage
+            if (template.isMiniMessage()) {
+                // fill the rendered chat message into the compiled MiniMessage
+                return partComponentBuilder.append(FormatPartTemplate.fill(compiled, body.getLineComponent())).build();
+            }
+
+            // fill the compiled text with the rendered chat message
+            Component parsedText = FormatPartTemplate.fill(compiled, body.getComponent());
+
+            /* Retaining events for MULTIPLE components */
+
+            // if contains click action
+            // (the hover value is resolved before the click value)
+            String hoverValue = hover != null ? values.next() : null;
+            if (clickAction != null) {
+                parsedText = parsedText.clickEvent(click != null ? clickAction.toClickEvent(values.next()) : clickEvent);
+            }
+
+            // if contains hover action
+            if (hoverAction != null) {
+                parsedText = parsedText.hoverEvent(hover != null ? hoverAction.toHoverEvent(hoverValue) : hoverEvent);
+            }
+
+            return partComponentBuilder.append(parsedText).build();
+        }
+    }
+}
@@ -1,39 +1,18 @@
 package dev.spaceseries.spacechat.builder.live;
 
 import dev.spaceseries.spacechat.api.wrapper.Quad;
-import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
-import me.mattstudios.msg.adventure.AdventureMessage;
-import me.mattstudios.msg.base.MessageOptions;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.ComponentBuilder;
 import net.kyori.adventure.text.TextComponent;
-import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.wrapper.Pair;
 import dev.spaceseries.spacechat.builder.Builder;
-import dev.spaceseries.spacechat.model.formatting.Extra;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.model.formatting.ChatMessageBody;
 import dev.spaceseries.spacechat.model.formatting.Format;
-import dev.spaceseries.spacechat.parser.MessageParser;
-import dev.spaceseries.spacechat.replacer.AmpersandReplacer;
-import dev.spaceseries.spacechat.replacer.SectionReplacer;
-import me.clip.placeholderapi.PlaceholderAPI;
-import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
-import java.util.Locale;
-
 public class RelationalLiveChatFormatBuilder extends LiveChatFormatBuilder implements Builder<Quad<Player, Player, String, Format>, TextComponent> {
 
-    /**
-     * Ampersand replacer
-     */
-    private static final AmpersandReplacer AMPERSAND_REPLACER = new AmpersandReplacer();
-
-    /**
-     * Section replacer
-     */
-    private static final SectionReplacer SECTION_REPLACER = new SectionReplacer();
-
     public RelationalLiveChatFormatBuilder(SpaceChatPlugin plugin) {
         super(plugin);
     }
@@ -46,151 +25,32 @@ public class RelationalLiveChatFormatBuilder extends LiveChatFormatBuilder imple
      */
     @Override
     public TextComponent build(Quad<Player, Player, String, Format> input) {
-        // get input parameters
-        Player player = input.getA();
-        Player player2 = input.getB();
-        String messageString = input.getC();
-        Format format = input.getD();
-
-        // create component builder for message
-        ComponentBuilder<TextComponent, TextComponent.Builder> componentBuilder = Component.text();
-
-        // loop through format parts
-        format.getFormatParts().forEach(formatPart -> {
-            // create component builder
-            ComponentBuilder<TextComponent, TextComponent.Builder> partComponentBuilder = Component.text();
-            // if the part has "line", it is a SINGLE MiniMessage...in that case, just parse & return (continues to next part if exists, which it shouldn't)
-            if (formatPart.getLine() != null) {
-                // replace placeholders
-                String mmWithPlaceholdersReplaced = SECTION_REPLACER.apply(PlaceholderAPI.setPlaceholders(player, AMPERSAND_REPLACER.apply(formatPart.getLine(), player)), player);
-                // replace relational and apply section replacer
-                mmWithPlaceholdersReplaced = SECTION_REPLACER.apply(PlaceholderAPI.setRelationalPlaceholders(player, player2, mmWithPlaceholdersReplaced), player);
-
-                // get chat message (formatted)
-                MessageOptions.Builder messageOptionsBuilder = MessageOptions.builder(me.mattstudios.msg.base.internal.Format.NONE);
-                if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_COLORS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-                    messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.COLOR);
-                    messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.HEX);
-                    messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.GRADIENT);
-                    messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.RAINBOW);
-                }
-                String formattingPermission = SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_FORMATTING.get(plugin.getSpaceChatConfig().getAdapter());
-                for (me.mattstudios.msg.base.internal.Format f : me.mattstudios.msg.base.internal.Format.ALL) {
-                    if (player.hasPermission(formattingPermission + f.name().toLowerCase(Locale.ROOT))) {
-                        messageOptionsBuilder.addFormat(f);
-                    }
-                }
-
-                String chatMessage = LegacyComponentSerializer.legacySection().serialize(AdventureMessage.create(messageOptionsBuilder.build()).parse(messageString));
-                if (chatMessage.startsWith(ChatColor.WHITE.toString()) && !messageString.startsWith("&f")) {
-                    chatMessage = chatMessage.substring(2);
-                }
-
-                // parse message
-                Component message = new MessageParser(plugin).parse(player, Component.text(chatMessage));
-
-                // parse miniMessage
-                Component parsedMiniMessage = MiniMessage.miniMessage().deserialize(mmWithPlaceholdersReplaced);
-
-                // replace chat message
-                parsedMiniMessage = parsedMiniMessage.replaceText((text) -> text.match("<chat_message>").replacement(message));
-
-                // parse MiniMessage into builder
-                partComponentBuilder.append(parsedMiniMessage);
-                // append partComponentBuilder to main builder
-                componentBuilder.append(partComponentBuilder.build());
-                return;
-            }
-
-            String text = formatPart.getText();
-
-            // basically what I am doing here is converting & -> section, then replacing placeholders, then section -> &
-            // this just bypasses PAPI's hacky way of coloring text which shouldn't even be implemented...
-            text = SECTION_REPLACER.apply(PlaceholderAPI.setPlaceholders(player, AMPERSAND_REPLACER.apply(text, player)), player);
-            // set relational placeholders
-            text = SECTION_REPLACER.apply(PlaceholderAPI.setRelationalPlaceholders(player, player2, text), player);
-
-            // build text from legacy (and replace <chat_message> with the actual message)
-            // and check permissions for chat colors
-            Component parsedText;
-
-            // get chat message (formatted)
-            MessageOptions.Builder messageOptionsBuilder = MessageOptions.builder(me.mattstudios.msg.base.internal.Format.NONE);
-            if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_COLORS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-                messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.COLOR);
-                messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.HEX);
-                messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.GRADIENT);
-                messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.RAINBOW);
-            }
-            String formattingPermission = SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_FORMATTING.get(plugin.getSpaceChatConfig().getAdapter());
-            for (me.mattstudios.msg.base.internal.Format f : me.mattstudios.msg.base.internal.Format.ALL) {
-                if (player.hasPermission(formattingPermission + f.name().toLowerCase(Locale.ROOT))) {
-                    messageOptionsBuilder.addFormat(f);
-                }
-            }
-
-            // need to convert back to legacy in order to handle links als mf-msg can't do that
-            String chatMessage = LegacyComponentSerializer.legacySection().serialize(AdventureMessage.create(messageOptionsBuilder.build()).parse(messageString));
-            if (chatMessage.startsWith(ChatColor.WHITE.toString()) && !messageString.startsWith("&f")) {
-                chatMessage = chatMessage.substring(2);
-            }
-
-            Component messageComponent = computeChatMessageComponentSerializer(player)
-                    .deserialize(chatMessage);
-
-            parsedText = LegacyComponentSerializer.legacyAmpersand().deserialize(text)
-                    .replaceText((b) -> b.matchLiteral("<chat_message>").replacement(messageComponent));
-
-            // parse message
-            parsedText = new MessageParser(plugin).parse(player, parsedText);
-
-            /* Retaining events for MULTIPLE components */
-
-            // parse extra (if applicable)
-            if (formatPart.getExtra() != null) {
-                Extra extra = formatPart.getExtra();
-
-                // if contains click action
-                if (extra.getClickAction() != null) {
-                    // apply
-                    parsedText = parsedText.clickEvent(extra.getClickAction().toClickEventRelational(player, player2));
-                }
-
-                // if contains hover action
-                if (extra.getHoverAction() != null) {
-                    // apply
-                    parsedText = parsedText.hoverEvent(extra.getHoverAction().toHoverEventRelational(player, player2));
-                }
-            }
-
-            partComponentBuilder.append(parsedText);
-
-            // append build partComponentBuilder to main componentBuilder
-            componentBuilder.append(partComponentBuilder.build());
-        });
-
-        // return built component builder
-        return componentBuilder.build();
+        SenderCapabilities capabilities = SenderCapabilities.of(input.getA(), plugin.getSpaceChatConfig().getAdapter());
+        return build(input.getA(), input.getB(), new ChatMessageBodyBuilder(plugin).build(new Pair<>(input.getC(), capabilities)), input.getD());
     }
 
     /**
-     * Computes the legacy component serializer based on player context for chat messages
+     * Builds an array of baseComponents from an already rendered message, players, and format
      *
-     * @param player player
-     * @return legacy component serializer
+     * @param player  The player
+     * @param player2 The second player
+     * @param body    The rendered message
+     * @param format  The format
+     * @return The array of baseComponents
      */
-    private LegacyComponentSerializer computeChatMessageComponentSerializer(Player player) {
-        LegacyComponentSerializer.Builder legacyComponentSerializerBuilder = LegacyComponentSerializer.builder();
-
-        if (player != null && player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_COLORS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-            legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.hexColors();
-            legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.character('&');
-        }
-
-        if (player != null && player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_LINKS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-            legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.extractUrls();
-        }
+    public TextComponent build(Player player, Player player2, ChatMessageBody body, Format format) {
+        return plan(player, body, format).render(player2);
+    }
 
-        return legacyComponentSerializerBuilder.build();
+    /**
+     * Prepares a format for a message, so it can be rendered for multiple viewers
+     *
+     * @param player The player
+     * @param body   The rendered message
+     * @param format The format
+     * @return The plan
+     */
+    public RelationalFormatPlan plan(Player player, ChatMessageBody body, Format format) {
+        return new RelationalFormatPlan(player, body, format, SpaceChatConfigKeys.NORMALIZE_COMPONENTS.get(plugin.getSpaceChatConfig().getAdapter()));
     }
 }
@@ -0,0 +1,155 @@
+package dev.spaceseries.spacechat.builder.live;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.HoverEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how large the rendered body of a single chat message may get
+ * <p>
+ * A long message with a gradient or rainbow produces a component for every single character, which is then copied
+ * into every format part and sent to every player. Messages that don't fit are rendered again without the
+ * per-character formats, and as plain text if that still doesn't fit.
+ */
+public class RenderBudget {
+
+    /**
+     * If the budget is enabled
+     */
+    private final boolean enabled;
+
+    /**
+     * The maximum amount of components
+     */
+    private final int maxComponents;
+
+    /**
+     * The maximum depth of the component tree
+     */
+    private final int maxDepth;
+
+    /**
+     * The maximum amount of item chat replacements per message, -1 if unlimited
+     */
+    private final int maxItemReplacements;
+
+    /**
+     * The amount of messages that didn't fit
+     */
+    private final AtomicLong exceeded = new AtomicLong();
+
+    /**
+     * The amount of messages that were rendered as plain text
+     */
+    private final AtomicLong plain = new AtomicLong();
+
+    /**
+     * Construct render budget
+     *
+     * @param plugin plugin
+     */
+    public RenderBudget(SpaceChatPlugin plugin) {
+        ConfigurationAdapter config = plugin.getSpaceChatConfig().getAdapter();
+
+        this.enabled = SpaceChatConfigKeys.RENDER_BUDGET_ENABLED.get(config);
+        this.maxComponents = SpaceChatConfigKeys.RENDER_BUDGET_MAX_COMPONENTS.get(config);
+        this.maxDepth = SpaceChatConfigKeys.RENDER_BUDGET_MAX_DEPTH.get(config);
+        this.maxItemReplacements = enabled ? SpaceChatConfigKeys.RENDER_BUDGET_MAX_ITEM_REPLACEMENTS.get(config) : -1;
+    }
+
+    /**
+     * Returns true if the budget is enabled
+     *
+     * @return enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the maximum amount of item chat replacements per message
+     *
+     * @return max item replacements, -1 if unlimited
+     */
+    public int getMaxItemReplacements() {
+        return maxItemReplacements;
+    }
+
+    /**
+     * Returns true if a component fits in the budget
+     * <p>
+     * Counting stops as soon as the budget is exceeded, so this is cheap even for huge components
+     *
+     * @param component component
+     * @return fits
+     */
+    public boolean fits(Component component) {
+        return !enabled || count(component, 1, maxComponents) >= 0;
+    }
+
+    /**
+     * Counts the components of a tree (including the text of hover events)
+     *
+     * @param component component
+     * @param depth     the depth of the component
+     * @param remaining the remaining amount of components
+     * @return the remaining amount of components after this one, -1 if the budget is exceeded
+     */
+    private int count(Component component, int depth, int remaining) {
+        if (depth > maxDepth || --remaining < 0) {
+            return -1;
+        }
+
+        HoverEvent<?> hoverEvent = component.hoverEvent();
+        if (hoverEvent != null && hoverEvent.action() == HoverEvent.Action.SHOW_TEXT) {
+            remaining = count((Component) hoverEvent.value(), depth + 1, remaining);
+            if (remaining < 0) {
+                return -1;
+            }
+        }
+
+        for (Component child : component.children()) {
+            remaining = count(child, depth + 1, remaining);
+            if (remaining < 0) {
+                return -1;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Records a message that didn't fit
+     */
+    public void recordExceeded() {
+        exceeded.incrementAndGet();
+    }
+
+    /**
+     * Records a message that was rendered as plain text
+     */
+    public void recordPlain() {
+        plain.incrementAndGet();
+    }
+
+    /**
+     * Returns the amount of messages that didn't fit
+     *
+     * @return exceeded count
+     */
+    public long getExceededCount() {
+        return exceeded.get();
+    }
+
+    /**
+     * Returns the amount of messages that were rendered as plain text
+     *
+     * @return plain count
+     */
+    public long getPlainCount() {
+        return plain.get();
+    }
+}
@@ -0,0 +1,175 @@
+package dev.spaceseries.spacechat.builder.live;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.model.formatting.Format;
+import net.kyori.adventure.text.TextComponent;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recently rendered chat lines, so identical messages ("gg", "gl", ...) of the same sender with the same
+ * format don't have to be rendered again
+ * <p>
+ * A line is identified by its format, the capabilities of the sender, the resolved placeholders of the format and
+ * the raw message. Messages that go through a parser that doesn't always give the same result (e.g. item chat) are
+ * never cached.
+ */
+public class RenderedLineCache {
+
+    /**
+     * The rendered lines, null if the cache is disabled
+     */
+    private final Cache<Key, TextComponent> lines;
+
+    /**
+     * The amount of renders that couldn't be cached
+     */
+    private final AtomicLong uncacheable = new AtomicLong();
+
+    /**
+     * Construct rendered line cache
+     *
+     * @param plugin plugin
+     */
+    public RenderedLineCache(SpaceChatPlugin plugin) {
+        ConfigurationAdapter config = plugin.getSpaceChatConfig().getAdapter();
+
+        this.lines = SpaceChatConfigKeys.RENDER_CACHE_ENABLED.get(config) ? Caffeine.newBuilder()
+                .maximumSize(SpaceChatConfigKeys.RENDER_CACHE_MAXIMUM_SIZE.get(config))
+                .expireAfterWrite(SpaceChatConfigKeys.RENDER_CACHE_EXPIRE_AFTER.get(config), TimeUnit.SECONDS)
+                .recordStats()
+                .build() : null;
+    }
+
+    /**
+     * Returns true if the cache is enabled
+     *
+     * @return enabled
+     */
+    public boolean isEnabled() {
+        return lines != null;
+    }
+
+    /**
+     * Returns a rendered line
+     *
+     * @param key key
+     * @return line, null if it isn't cached
+     */
+    public TextComponent get(Key key) {
+        return lines != null ? lines.getIfPresent(key) : null;
+    }
+
+    /**
+     * Remembers a rendered line
+     *
+     * @param key  key
+     * @param line line
+     */
+    public void put(Key key, TextComponent line) {
+        if (lines != null) {
+            lines.put(key, line);
+        }
+    }
+
+    /**
+     * Counts a render that couldn't be cached
+     */
+    public void recordUncacheable() {
+        uncacheable.incrementAndGet();
+    }
+
+    /**
+     * Forgets all rendered lines
+     */
+    public void invalidateAll() {
+        if (lines != null) {
+            lines.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache
+     *
+     * @return stats
+     */
+    public CacheStats getStats() {
+        return lines != null ? lines.stats() : CacheStats.empty();
+    }
+
+    /**
+     * Returns the (approximate) amount of cached lines
+     *
+     * @return size
+     */
+    public long getSize() {
+        return lines != null ? lines.estimatedSize() : 0;
+    }
+
+    /**
+     * Returns the amount of renders that couldn't be cached
+     *
+     * @return uncacheable count
+     */
+    public long getUncacheableCount() {
+        return uncacheable.get();
+    }
+
+    /**
+     * The identity of a rendered line
+     */
+    public static final class Key {
+
+        private final Format format;
+        private final int flags;
+        private final long formats;
+        private final String[] values;
+        private final String raw;
+        private final int hash;
+
+        /**
+         * Construct key
+         *
+         * @param format       format (compared by identity, reloaded formats never match old lines)
+         * @param capabilities capabilities of the sender
+         * @param values       resolved placeholders of the format
+         * @param raw          raw message
+         */
+        public Key(Format format, SenderCapabilities capabilities, String[] values, String raw) {
+            this.format = format;
+            this.flags = capabilities.getFlags();
+            this.formats = capabilities.getFormatFlags();
+            this.values = values;
+            this.raw = raw;
+
+            int hash = System.identityHashCode(format);
+            hash = 31 * hash + flags;
+            hash = 31 * hash + Long.hashCode(formats);
+            hash = 31 * hash + Arrays.hashCode(values);
+            hash = 31 * hash + raw.hashCode();
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return format == key.format && flags == key.flags && formats == key.formats && hash == key.hash
+                    && raw.equals(key.raw) && Arrays.equals(values, key.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -4,17 +4,16 @@ import dev.spaceseries.spacechat.SpaceChatPlugin;
 import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
 import dev.spaceseries.spacechat.loader.ChatFormatLoader;
 import dev.spaceseries.spacechat.loader.FormatLoader;
-import dev.spaceseries.spacechat.loader.FormatManager;
 import dev.spaceseries.spacechat.model.formatting.ChatFormat;
 import dev.spaceseries.spacechat.model.formatting.FormatType;
 import dev.spaceseries.spacechat.sync.ServerSyncServiceManager;
 import org.bukkit.entity.Player;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.util.Comparator;
 import java.util.Locale;
 
-public class ChatFormatManager extends FormatManager<ChatFormat> {
+public class ChatFormatManager extends PrioritizedFormatManager {
 
     /**
      * The format loader
@@ -54,27 +53,39 @@ public class ChatFormatManager extends FormatManager<ChatFormat> {
      * @param message The message
      */
     public void send(AsyncPlayerChatEvent event, String message) {
-        ChatManager chatManager = plugin.getChatManager();
+        send(event.getPlayer(), message, event);
+    }
 
-        // get player
-        Player player = event.getPlayer();
+    /**
+     * Sends a chat message using the applicable format
+     *
+     * @param player  The player that the message is from
+     * @param message The message
+     * @param event   The event, can be null
+     */
+    public void send(Player player, String message, @Nullable AsyncPlayerChatEvent event) {
+        ChatManager chatManager = plugin.getChatManager();
 
         // get applicable format
-        ChatFormat applicableFormat = getAll()
-                .values()
-                .stream()
-                .filter(format -> player.hasPermission(format.getPermission()) || format.getHandle().equals("default")) // player has permission OR the format is default
-                .max(Comparator.comparing(ChatFormat::getPriority))
-                .orElse(getAll().values().stream()
-                        .findFirst()
-                        .orElse(null));
+        ChatFormat applicableFormat = getFormat(player);
 
         // if relational
-        if (SpaceChatConfigKeys.USE_RELATIONAL_PLACEHOLDERS.get(plugin.getSpaceChatConfig().getAdapter()) && !serverSyncServiceManager.isUsingNetwork()) {
+        if (isRelational()) {
             // send relational
             chatManager.sendRelationalChatMessage(player, message, applicableFormat == null ? null : applicableFormat.getFormat(), event);
         } else {
             chatManager.sendChatMessage(player, message, applicableFormat == null ? null : applicableFormat.getFormat(), event);
         }
     }
+
+    /**
+     * Returns true if chat messages are rendered with relational placeholders
+     * <p>
+     * Relational placeholders can't be used with multiple servers
+     *
+     * @return is relational
+     */
+    public boolean isRelational() {
+        return SpaceChatConfigKeys.USE_RELATIONAL_PLACEHOLDERS.get(plugin.getSpaceChatConfig().getAdapter()) && !serverSyncServiceManager.isUsingNetwork();
+    }
 }
@@ -1,13 +1,13 @@
 package dev.spaceseries.spacechat.chat;
 
-import com.google.common.collect.ImmutableMap;
 import dev.spaceseries.spacechat.Messages;
 import dev.spaceseries.spacechat.SpaceChatPlugin;
 import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
 import dev.spaceseries.spacechat.api.message.Message;
-import dev.spaceseries.spacechat.api.wrapper.Quad;
-import dev.spaceseries.spacechat.api.wrapper.Trio;
+import dev.spaceseries.spacechat.api.wrapper.Pair;
+import dev.spaceseries.spacechat.builder.live.ChatMessageBodyBuilder;
 import dev.spaceseries.spacechat.builder.live.NormalLiveChatFormatBuilder;
+import dev.spaceseries.spacechat.builder.live.RelationalFormatPlan;
 import dev.spaceseries.spacechat.builder.live.RelationalLiveChatFormatBuilder;
 import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
 import dev.spaceseries.spacechat.logging.wrap.LogChatWrapper;
@@ -16,20 +16,22 @@ import dev.spaceseries.spacechat.logging.wrap.LogToType;
 import dev.spaceseries.spacechat.logging.wrap.LogType;
 import dev.spaceseries.spacechat.model.Channel;
 import dev.spaceseries.spacechat.model.ChatType;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
 import dev.spaceseries.spacechat.model.User;
+import dev.spaceseries.spacechat.model.formatting.ChatMessageBody;
 import dev.spaceseries.spacechat.model.formatting.Format;
 import dev.spaceseries.spacechat.model.manager.Manager;
+import dev.spaceseries.spacechat.parser.filter.ChatFilter;
+import dev.spaceseries.spacechat.parser.mention.MentionMatcher;
 import dev.spaceseries.spacechat.sync.ServerDataSyncService;
 import dev.spaceseries.spacechat.sync.ServerStreamSyncService;
 import dev.spaceseries.spacechat.sync.redis.stream.packet.chat.RedisChatPacket;
 import dev.spaceseries.spacechat.sync.redis.stream.packet.privatechat.RedisPrivateChatPacket;
-import dev.spaceseries.spacechat.util.color.ColorUtil;
-import me.mattstudios.msg.adventure.AdventureMessage;
-import me.mattstudios.msg.base.MessageOptions;
+import dev.spaceseries.spacechat.util.component.PlainTextFlattener;
+import dev.spaceseries.spacechat.util.platform.NativeAdventure;
 import net.kyori.adventure.identity.Identity;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
@@ -37,6 +39,7 @@ import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.*;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 public class ChatManager implements Manager {
@@ -46,6 +49,11 @@ public class ChatManager implements Manager {
     private ServerDataSyncService serverDataSyncService;
     private final ConfigurationAdapter config;
 
+    /**
+     * If components are sent directly to players, instead of through the audience provider
+     */
+    private final boolean nativeDelivery;
+
     /**
      * Construct chat event manager
      *
@@ -54,6 +62,8 @@ public class ChatManager implements Manager {
     public ChatManager(SpaceChatPlugin plugin) {
         this.plugin = plugin;
         this.config = plugin.getSpaceChatConfig().getAdapter();
+        // the audience provider converts every component through reflection, the server can do it itself
+        this.nativeDelivery = SpaceChatConfigKeys.PAPER_NATIVE_DELIVERY.get(config) && NativeAdventure.isAvailable();
     }
 
     /**
@@ -115,12 +125,26 @@ public class ChatManager implements Manager {
      * @param canBypassDisabled sender bypasses disabled chat
      */
     public void sendComponentChatMessage(UUID from, Component component, Player to, boolean canBypassIgnore, boolean canBypassDisabled) {
-        User user = plugin.getUserManager().get(to.getUniqueId());
-        if (user == null || ((user.hasChatEnabled(ChatType.PUBLIC) || canBypassDisabled) && (!user.isIgnored(from) || canBypassIgnore))) {
+        if (canReceiveChatMessage(from, to, canBypassIgnore, canBypassDisabled)) {
             sendComponentMessage(canBypassIgnore ? Identity.nil() : Identity.identity(from), component, to);
         }
     }
 
+    /**
+     * Returns true if a player receives the chat messages of a sender, i.e. they have public chat enabled and don't
+     * ignore the sender
+     *
+     * @param from              sender UUID
+     * @param to                to
+     * @param canBypassIgnore   sender bypasses ignores
+     * @param canBypassDisabled sender bypasses disabled chat
+     * @return can receive
+     */
+    public boolean canReceiveChatMessage(UUID from, Player to, boolean canBypassIgnore, boolean canBypassDisabled) {
+        User user = plugin.getUserManager().get(to.getUniqueId());
+        return user == null || ((user.hasChatEnabled(ChatType.PUBLIC) || canBypassDisabled) && (!user.isIgnored(from) || canBypassIgnore));
+    }
+
     /**
      * Send a raw component to all players with a nil Identity as the source
      *
@@ -128,7 +152,13 @@ public class ChatManager implements Manager {
      */
     public void sendComponentMessage(Component component) {
         // send chat message to all online players
-        Message.getAudienceProvider().players().sendMessage(component);
+        if (nativeDelivery) {
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                NativeAdventure.sendMessage(Identity.nil(), component, player);
+            }
+        } else {
+            Message.getAudienceProvider().players().sendMessage(component);
+        }
     }
 
     /**
@@ -152,7 +182,11 @@ public class ChatManager implements Manager {
      */
     public void sendComponentMessage(Identity from, Component component, Player to) {
         // send chat message to a specific player
-        Message.getAudienceProvider().player(to.getUniqueId()).sendMessage(from, component);
+        if (nativeDelivery) {
+            NativeAdventure.sendMessage(from, component, to);
+        } else {
+            Message.getAudienceProvider().player(to.getUniqueId()).sendMessage(from, component);
+        }
     }
 
     /**
@@ -221,24 +255,13 @@ public class ChatManager implements Manager {
      * @param event   optionally the chat event
      */
     public void sendChatMessage(Player from, String message, @Nullable Channel channel, @Nullable Format format, @Nullable AsyncPlayerChatEvent event) {
-        boolean canBypassIgnore = from.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_IGNORE.get(config));
-        boolean canBypassDisabled = from.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_DISABLED_PUBLIC.get(config));
+        // check the sender's permissions once for the whole message
+        SenderCapabilities capabilities = SenderCapabilities.of(from, config);
+        boolean canBypassIgnore = capabilities.canBypassIgnore();
+        boolean canBypassDisabled = capabilities.canBypassDisabledPublic();
 
-        Component components;
-
-        // if null, return
-        if (format == null) {
-            // build components default message
-            // this only happens if it's not possible to find a chat format
-            components = Component.text()
-                    .append(Component.text(from.getDisplayName(), NamedTextColor.AQUA))
-                    .append(Component.text("> ", NamedTextColor.GRAY))
-                    .append(Component.text(message))
-                    .build();
-        } else { // if not null
-            // get baseComponents from live builder
-            components = new NormalLiveChatFormatBuilder(plugin).build(new Trio<>(from, message, format));
-        }
+        ChatMessageBody body = buildChatMessageBody(message, capabilities);
+        Component components = renderChatMessage(from, body, format);
 
         // if channel exists, then send through it
         if (channel != null) {
@@ -248,34 +271,14 @@ public class ChatManager implements Manager {
             sendComponentChatMessage(from.getUniqueId(), components, canBypassIgnore, canBypassDisabled);
         }
 
-        // log to storage
-        plugin.getLogManagerImpl()
-                .log(new LogChatWrapper(LogType.CHAT, from.getName(), from.getUniqueId(), message, new Date()),
-                        LogType.CHAT,
-                        LogToType.STORAGE
-                );
+        // log to storage and send via redis
+        publishChatMessage(from, message, channel, components, canBypassIgnore, canBypassDisabled);
 
-        // send via redis (it won't do anything if redis isn't enabled, so we can be sure that we aren't using dead methods that will throw an exception)
-        serverStreamSyncService.publishChat(new RedisChatPacket(from.getUniqueId(), from.getName(), channel, SpaceChatConfigKeys.REDIS_SERVER_IDENTIFIER.get(config), SpaceChatConfigKeys.REDIS_SERVER_DISPLAYNAME.get(config), components, canBypassIgnore, canBypassDisabled));
+        // ping mentioned players, log flagged messages
+        notifyChatMessage(from, body);
 
         // log to console
-        if (event != null) { // if there's an event, log w/ the event
-            plugin.getLogManagerImpl()
-                    .log(components.children()
-                            .stream()
-                            .map(c -> LegacyComponentSerializer.legacySection().serialize(c))
-                            .map(ColorUtil::translateFromAmpersand)
-                            .map(ColorUtil::stripColor)
-                            .collect(Collectors.joining()), LogType.CHAT, LogToType.CONSOLE, event);
-        } else {
-            plugin.getLogManagerImpl() // if there's no event, just log to console without using the event
-                    .log(components.children()
-                            .stream()
-                            .map(c -> LegacyComponentSerializer.legacySection().serialize(c))
-                            .map(ColorUtil::translateFromAmpersand)
-                            .map(ColorUtil::stripColor)
-                            .collect(Collectors.joining()), LogType.CHAT, LogToType.CONSOLE);
-        }
+        logToConsole(components, event);
 
         // note: storage logging is handled in the actual chat format manager because there's no need to log
         // if a message come from redis. This is really a generified version of my initial idea
@@ -284,81 +287,165 @@ public class ChatManager implements Manager {
 
 
     /**
-     * Send a chat message with relational placeholders
+     * Renders the body of a chat message, it's shared by every format part and viewer
      *
-     * @param from    player that the message is from
-     * @param message message
-     * @param format  format format
-     * @param event   event
+     * @param message      message
+     * @param capabilities the capabilities of the player
+     * @return body
      */
-    public void sendRelationalChatMessage(Player from, String message, Format format, AsyncPlayerChatEvent event) {
-        boolean canBypassIgnore = from.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_IGNORE.get(config));
-        boolean canBypassDisabled = from.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_DISABLED_PUBLIC.get(config));
-
-        // component to use with storage and logging
-        Component sampledComponent;
+    public ChatMessageBody buildChatMessageBody(String message, SenderCapabilities capabilities) {
+        return new ChatMessageBodyBuilder(plugin).build(new Pair<>(message, capabilities));
+    }
 
+    /**
+     * Renders a chat message
+     *
+     * @param from   player that the message is from
+     * @param body   the body of the message
+     * @param format format, can be null
+     * @return components
+     */
+    public Component renderChatMessage(Player from, ChatMessageBody body, @Nullable Format format) {
+        // if null, return
         if (format == null) {
-            // build components default message
             // this only happens if it's not possible to find a chat format
-            sampledComponent = Component.text()
-                    .append(Component.text(from.getDisplayName(), NamedTextColor.AQUA))
-                    .append(Component.text("> ", NamedTextColor.GRAY))
-                    .append(Component.text(message))
-                    .build();
-        } else { // if not null
-            // get baseComponents from live builder
-            sampledComponent = new NormalLiveChatFormatBuilder(plugin).build(new Trio<>(from, message, format));
+            return renderDefaultChatMessage(from, body.getRaw());
         }
 
-        // do relational parsing
-        Bukkit.getOnlinePlayers().forEach(to -> {
-            Component component;
-
-            if (format == null) {
-                // build components default message
-                // this only happens if it's not possible to find a chat format
-                component = Component.text()
-                        .append(Component.text(from.getDisplayName(), NamedTextColor.AQUA))
-                        .append(Component.text("> ", NamedTextColor.GRAY))
-                        .append(Component.text(message))
-                        .build();
-            } else { // if not null
-                // get baseComponents from live builder
-                component = new RelationalLiveChatFormatBuilder(plugin).build(new Quad<>(from, to, message, format));
+        // get baseComponents from live builder
+        return new NormalLiveChatFormatBuilder(plugin).build(from, body, format);
+    }
+
+    /**
+     * Plans a chat message with relational placeholders, everything that doesn't depend on the viewer is rendered once
+     *
+     * @param from   player that the message is from
+     * @param body   the body of the message
+     * @param format format, can be null
+     * @return plan, null if there is no format
+     */
+    public @Nullable RelationalFormatPlan planRelationalChatMessage(Player from, ChatMessageBody body, @Nullable Format format) {
+        return format != null ? new RelationalLiveChatFormatBuilder(plugin).plan(from, body, format) : null;
+    }
+
+    /**
+     * Does everything that has to happen exactly once for a sent chat message, after it's rendered
+     * <p>
+     * The body may be parsed more than once (e.g. for legacy and MiniMessage format parts), so this can't be done
+     * by the parsers themselves (e.g. pinging mentioned players, or logging flagged messages)
+     *
+     * @param from player that the message is from
+     * @param body the body of the message
+     */
+    public void notifyChatMessage(Player from, ChatMessageBody body) {
+        ChatFilter chatFilter = plugin.getChatFilter();
+        if (chatFilter.isEnabled() && chatFilter.getMode() == ChatFilter.Mode.FLAG
+                && !body.getCapabilities().canBypassChatFilter() && chatFilter.matches(body.getParsed())) {
+            plugin.getLogger().log(Level.WARNING, "Filtered words in the message of " + from.getName() + ": " + body.getRaw());
+        }
+
+        MentionMatcher mentionMatcher = plugin.getMentionMatcher();
+        if (mentionMatcher.isEnabled()) {
+            Set<String> mentioned = mentionMatcher.find(body.getParsed());
+
+            // don't ping yourself
+            mentioned.remove(from.getName());
+            if (!mentioned.isEmpty()) {
+                mentionMatcher.ping(mentioned);
             }
+        }
+    }
 
-            // send to 'to-player'
-            sendComponentChatMessage(from.getUniqueId(), component, to, canBypassIgnore, canBypassDisabled);
-        });
+    /**
+     * Renders the default chat message
+     * This only happens if it's not possible to find a chat format
+     *
+     * @param from    player that the message is from
+     * @param message message
+     * @return components
+     */
+    public Component renderDefaultChatMessage(Player from, String message) {
+        return Component.text()
+                .append(Component.text(from.getDisplayName(), NamedTextColor.AQUA))
+                .append(Component.text("> ", NamedTextColor.GRAY))
+                .append(Component.text(message))
+                .build();
+    }
 
+    /**
+     * Logs a sent chat message to storage and publishes it to the other servers
+     *
+     * @param from              player that the message is from
+     * @param message           message
+     * @param channel           the channel it was sent to, null if global
+     * @param components        components
+     * @param canBypassIgnore   sender bypasses ignores
+     * @param canBypassDisabled sender bypasses disabled public chats
+     */
+    public void publishChatMessage(Player from, String message, @Nullable Channel channel, Component components, boolean canBypassIgnore, boolean canBypassDisabled) {
         // log to storage
+        logChatMessage(from, message);
+
+        // send via redis (it won't do anything if redis isn't enabled, so we can be sure that we aren't using dead methods that will throw an exception)
+        serverStreamSyncService.publishChat(new RedisChatPacket(from.getUniqueId(), from.getName(), channel, SpaceChatConfigKeys.REDIS_SERVER_IDENTIFIER.get(config), SpaceChatConfigKeys.REDIS_SERVER_DISPLAYNAME.get(config), components, canBypassIgnore, canBypassDisabled));
+    }
+
+    /**
+     * Logs a sent chat message to storage
+     *
+     * @param from    player that the message is from
+     * @param message message
+     */
+    public void logChatMessage(Player from, String message) {
         plugin.getLogManagerImpl()
                 .log(new LogChatWrapper(LogType.CHAT, from.getName(), from.getUniqueId(), message, new Date()),
                         LogType.CHAT,
                         LogToType.STORAGE
                 );
+    }
 
-        // log to console
-        if (event != null) {// if there's an event, log w/ the event
-            plugin.getLogManagerImpl()
-                    .log(sampledComponent.children()
-                            .stream()
-                            .map(c -> LegacyComponentSerializer.legacySection().serialize(c))
-                            .map(ColorUtil::translateFromAmpersand)
-                            .map(ColorUtil::stripColor)
-                            .collect(Collectors.joining()), LogType.CHAT, LogToType.CONSOLE, event);
+    /**
+     * Send a chat message with relational placeholders
+     *
+     * @param from    player that the message is from
+     * @param message message
+     * @param format  format format
+     * @param event   event, can be null
+     */
+    public void sendRelationalChatMessage(Player from, String message, Format format, @Nullable AsyncPlayerChatEvent event) {
+        // check the sender's permissions once for the whole message
+        SenderCapabilities capabilities = SenderCapabilities.of(from, config);
+        boolean canBypassIgnore = capabilities.canBypassIgnore();
+        boolean canBypassDisabled = capabilities.canBypassDisabledPublic();
 
-        } else {
-            plugin.getLogManagerImpl() // if there's no event, just log to console without using the event
-                    .log(sampledComponent.children()
-                            .stream()
-                            .map(c -> LegacyComponentSerializer.legacySection().serialize(c))
-                            .map(ColorUtil::translateFromAmpersand)
-                            .map(ColorUtil::stripColor)
-                            .collect(Collectors.joining()), LogType.CHAT, LogToType.CONSOLE);
+        // render everything that doesn't depend on the viewer only once
+        ChatMessageBody body = buildChatMessageBody(message, capabilities);
+        RelationalFormatPlan plan = planRelationalChatMessage(from, body, format);
+
+        // component to use with storage and logging
+        Component sampledComponent = plan != null ? plan.renderSample() : renderDefaultChatMessage(from, message);
+
+        // do relational parsing
+        // only the relational parts are rendered for every player (the default message is the same for everyone)
+        List<Player> viewers = new ArrayList<>(Bukkit.getOnlinePlayers());
+        List<Component> components = plan != null ?
+                plugin.getRelationalRenderPool().render(viewers, plan::render) :
+                Collections.nCopies(viewers.size(), sampledComponent);
+
+        // send to every 'to-player', in order
+        for (int i = 0; i < viewers.size(); i++) {
+            sendComponentChatMessage(from.getUniqueId(), components.get(i), viewers.get(i), canBypassIgnore, canBypassDisabled);
         }
 
+        // log to storage
+        logChatMessage(from, message);
+
+        // ping mentioned players, log flagged messages
+        notifyChatMessage(from, body);
+
+        // log to console
+        logToConsole(sampledComponent, event);
+
         // note: storage logging is handled in the actual chat format manager because there's no need to log
         // if a message come from redis. This is really a generified version of my initial idea
         // but it's pretty good and it works
@@ -373,35 +460,19 @@ public class ChatManager implements Manager {
      * @param format        format
      */
     public void sendPrivateMessage(Player from, String targetName, String message, Format format, AsyncPlayerChatEvent event) {
-        boolean canBypassIgnore = from.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_IGNORE.get(config));
-        boolean canBypassDisabled = from.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_DISABLED_PRIVATE.get(config));
+        // check the sender's permissions once for the whole message
+        SenderCapabilities capabilities = SenderCapabilities.of(from, config);
+        boolean canBypassIgnore = capabilities.canBypassIgnore();
+        boolean canBypassDisabled = capabilities.canBypassDisabledPrivate();
 
         Component sentComponents = null;
         Component receivedComponents;
 
         Player to = plugin.getServer().getPlayerExact(targetName);
 
-
-        // get chat message (formatted)
-        MessageOptions.Builder messageOptionsBuilder = MessageOptions.builder(me.mattstudios.msg.base.internal.Format.NONE);
-        if (from.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_COLORS.get(plugin.getSpaceChatConfig().getAdapter()))) {
-            messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.COLOR);
-            messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.HEX);
-            messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.GRADIENT);
-            messageOptionsBuilder.addFormat(me.mattstudios.msg.base.internal.Format.RAINBOW);
-        }
-        String formattingPermission = SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_FORMATTING.get(plugin.getSpaceChatConfig().getAdapter());
-        for (me.mattstudios.msg.base.internal.Format f : me.mattstudios.msg.base.internal.Format.ALL) {
-            if (from.hasPermission(formattingPermission + f.name().toLowerCase(Locale.ROOT))) {
-                messageOptionsBuilder.addFormat(f);
-            }
-        }
-
-        Component messageComponents = AdventureMessage.create(messageOptionsBuilder.build()).parse(message);
-        String formattedMessage = LegacyComponentSerializer.legacySection().serialize(messageComponents);
-        if (formattedMessage.startsWith(ChatColor.WHITE.toString()) && !message.startsWith("&f")) {
-            formattedMessage = formattedMessage.substring(2);
-        }
+        // render the message only once, both copies share it
+        ChatMessageBody body = buildChatMessageBody(message, capabilities);
+        String formattedMessage = body.getFormatted();
 
         // if null, return
         if (format == null) {
@@ -426,38 +497,15 @@ public class ChatManager implements Manager {
                             "%message%", formattedMessage
                     );
         } else { // if not null
-            Map<String, Component> generalReplacements = ImmutableMap.of(
-                    "%receivername%", Component.text(to != null ? to.getName() : targetName),
-                    "%receiverdisplayname%", LegacyComponentSerializer.legacySection().deserialize(to != null ? to.getDisplayName() : targetName),
-                    "%sendername%", Component.text(from.getName()),
-                    "%senderdisplayname%", LegacyComponentSerializer.legacySection().deserialize(from.getDisplayName()),
-                    "%message%", messageComponents
-            );
+            // both copies share the rendered message and replacements
+            boolean relational = SpaceChatConfigKeys.USE_RELATIONAL_PLACEHOLDERS.get(plugin.getSpaceChatConfig().getAdapter()) && !plugin.getServerSyncServiceManager().isUsingNetwork();
+            PrivateMessagePlan plan = new PrivateMessagePlan(plugin, from, to, targetName, body, format, relational);
+
             // get baseComponents from live builder
-            if (SpaceChatConfigKeys.USE_RELATIONAL_PLACEHOLDERS.get(plugin.getSpaceChatConfig().getAdapter()) && !plugin.getServerSyncServiceManager().isUsingNetwork()) {
-                if (to != null) {
-                    Map<String, Component> replacements = new LinkedHashMap<>();
-                    replacements.put("%format%", new RelationalLiveChatFormatBuilder(plugin).build(new Quad<>(to, from, message, format)));
-                    replacements.putAll(generalReplacements);
-                    sentComponents = Messages.getInstance(plugin).pmSent.compile(replacements);
-                }
-                Map<String, Component> replacements = new LinkedHashMap<>();
-                replacements.put("%format%", new RelationalLiveChatFormatBuilder(plugin).build(new Quad<>(from, to, message, format)));
-                replacements.putAll(generalReplacements);
-                receivedComponents = Messages.getInstance(plugin).pmReceived.compile(replacements);
-            } else {
-                if (to != null) {
-                    Map<String, Component> replacements = new LinkedHashMap<>();
-                    replacements.put("%format%", new NormalLiveChatFormatBuilder(plugin).build(new Trio<>(to, message, format)));
-                    replacements.putAll(generalReplacements);
-                    sentComponents = Messages.getInstance(plugin).pmSent.compile(replacements);
-                }
-                Map<String, Component> replacements = new LinkedHashMap<>();
-                replacements.put("%format%",new NormalLiveChatFormatBuilder(plugin).build(new Trio<>(from, message, format)));
-                replacements.putAll(generalReplacements);
-                receivedComponents = Messages.getInstance(plugin).pmReceived.compile(replacements);
+            if (to != null) {
+                sentComponents = plan.renderSent(from, to);
             }
-
+            receivedComponents = plan.renderReceived(from, to);
         }
 
         // log to storage
@@ -489,4 +537,23 @@ public class ChatManager implements Manager {
         plugin.getLogManagerImpl()
                 .log(from.getName() + " -> " + targetName + ": " + message, LogType.CHAT, LogToType.CONSOLE, event);
     }
+
+    /**
+     * Logs a chat message to the console
+     * <p>
+     * The message is flattened into plain text in a single pass. If there's no event and the console would
+     * discard the line anyway, nothing is done at all.
+     *
+     * @param component component
+     * @param event     event, may be null
+     */
+    private void logToConsole(Component component, AsyncPlayerChatEvent event) {
+        if (event != null) { // if there's an event, log w/ the event
+            plugin.getLogManagerImpl()
+                    .log(PlainTextFlattener.flatten(component), LogType.CHAT, LogToType.CONSOLE, event);
+        } else if (plugin.getLogger().isLoggable(Level.INFO)) {
+            plugin.getLogManagerImpl() // if there's no event, just log to console without using the event
+                    .log(PlainTextFlattener.flatten(component), LogType.CHAT, LogToType.CONSOLE);
+        }
+    }
 }
@@ -0,0 +1,182 @@
+package dev.spaceseries.spacechat.chat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import dev.spaceseries.spacechat.loader.FormatManager;
+import dev.spaceseries.spacechat.model.formatting.ChatFormat;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A format manager that picks the format with the highest priority a player has permission for
+ * <p>
+ * The formats are kept sorted by priority, so the selection stops at the first permitted format, and the chosen
+ * format of every player is cached for a short time (permission changes don't fire any events)
+ */
+public abstract class PrioritizedFormatManager extends FormatManager<ChatFormat> {
+
+    /**
+     * The handle of the format that every player may use
+     */
+    private static final String DEFAULT_HANDLE = "default";
+
+    /**
+     * The formats, sorted by priority (highest first), null if they have to be sorted again
+     */
+    private volatile ChatFormat[] sorted;
+
+    /**
+     * The format that is used if a player has permission for none of the formats
+     */
+    private volatile ChatFormat fallback;
+
+    /**
+     * The chosen formats, by player, null if caching is disabled
+     */
+    private final Cache<UUID, ChatFormat> chosen;
+
+    /**
+     * Construct prioritized format manager
+     *
+     * @param plugin plugin
+     */
+    public PrioritizedFormatManager(SpaceChatPlugin plugin) {
+        super(plugin);
+
+        int expireAfter = SpaceChatConfigKeys.FORMAT_CACHE_EXPIRE_AFTER.get(plugin.getSpaceChatConfig().getAdapter());
+        this.chosen = expireAfter > 0 ? Caffeine.newBuilder()
+                .expireAfterWrite(expireAfter, TimeUnit.SECONDS)
+                .build() : null;
+    }
+
+    /**
+     * Adds a format
+     *
+     * @param handle handle
+     * @param format format
+     */
+    @Override
+    public void add(String handle, ChatFormat format) {
+        super.add(handle, format);
+        reindex();
+    }
+
+    /**
+     * Removes a format
+     *
+     * @param handle handle
+     */
+    @Override
+    public void remove(String handle) {
+        super.remove(handle);
+        reindex();
+    }
+
+    /**
+     * Removes all formats
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        reindex();
+    }
+
+    /**
+     * Get applicable format
+     *
+     * @param player The player to get the format for
+     * @return The format
+     */
+    public ChatFormat getFormat(Player player) {
+        if (chosen == null) {
+            return select(player);
+        }
+
+        ChatFormat format = chosen.getIfPresent(player.getUniqueId());
+        if (format == null) {
+            format = select(player);
+            if (format != null) {
+                chosen.put(player.getUniqueId(), format);
+            }
+        }
+        return format;
+    }
+
+    /**
+     * Forgets the chosen format of a player
+     *
+     * @param uuid uuid of the player
+     */
+    public void invalidate(UUID uuid) {
+        if (chosen != null) {
+            chosen.invalidate(uuid);
+        }
+    }
+
+    /**
+     * Forgets the chosen formats of all players
+     */
+    public void invalidateAll() {
+        if (chosen != null) {
+            chosen.invalidateAll();
+        }
+    }
+
+    /**
+     * Selects the format with the highest priority the player has permission for
+     *
+     * @param player player
+     * @return format
+     */
+    private ChatFormat select(Player player) {
+        ChatFormat[] formats = index();
+        for (ChatFormat format : formats) {
+            // player has permission OR the format is default
+            if (format.getHandle().equals(DEFAULT_HANDLE) || player.hasPermission(format.getPermission())) {
+                return format;
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * Returns the formats, sorted by priority
+     *
+     * @return formats
+     */
+    private ChatFormat[] index() {
+        ChatFormat[] formats = sorted;
+        if (formats != null) {
+            return formats;
+        }
+
+        synchronized (this) {
+            if (sorted == null) {
+                formats = getAll().values().toArray(new ChatFormat[0]);
+                Arrays.sort(formats, Comparator.comparing(ChatFormat::getPriority).reversed());
+
+                Iterator<ChatFormat> iterator = getAll().values().iterator();
+                fallback = iterator.hasNext() ? iterator.next() : null;
+                sorted = formats;
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * Sorts the formats again on the next selection, and forgets all chosen formats
+     */
+    private void reindex() {
+        synchronized (this) {
+            sorted = null;
+        }
+        invalidateAll();
+    }
+}
@@ -4,17 +4,15 @@ import dev.spaceseries.spacechat.SpaceChatPlugin;
 import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
 import dev.spaceseries.spacechat.loader.ChatFormatLoader;
 import dev.spaceseries.spacechat.loader.FormatLoader;
-import dev.spaceseries.spacechat.loader.FormatManager;
 import dev.spaceseries.spacechat.model.formatting.ChatFormat;
 import dev.spaceseries.spacechat.model.formatting.FormatType;
 import dev.spaceseries.spacechat.sync.ServerSyncServiceManager;
 import org.bukkit.entity.Player;
 
-import java.util.Comparator;
 import java.util.Locale;
 import java.util.Map;
 
-public class PrivateFormatManager extends FormatManager<ChatFormat> {
+public class PrivateFormatManager extends PrioritizedFormatManager {
 
     /**
      * The format loader
@@ -68,21 +66,4 @@ public class PrivateFormatManager extends FormatManager<ChatFormat> {
 
         chatManager.sendPrivateMessage(player, targetName, message, applicableFormat == null ? null : applicableFormat.getFormat(), null);
     }
-
-    /**
-     * Get applicable format
-     *
-     * @param player The player to get the format for
-     * @return The format
-     */
-    public ChatFormat getFormat(Player player) {
-        return getAll()
-                .values()
-                .stream()
-                .filter(format -> player.hasPermission(format.getPermission()) || format.getHandle().equals("default")) // player has permission OR the format is default
-                .max(Comparator.comparing(ChatFormat::getPriority))
-                .orElse(getAll().values().stream()
-                        .findFirst()
-                        .orElse(null));
-    }
 }
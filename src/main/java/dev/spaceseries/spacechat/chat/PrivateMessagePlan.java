@@ -0,0 +1,140 @@
+package dev.spaceseries.spacechat.chat;
+
+import com.google.common.collect.ImmutableMap;
+import dev.spaceseries.spacechat.Messages;
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.message.Message;
+import dev.spaceseries.spacechat.builder.live.NormalLiveChatFormatBuilder;
+import dev.spaceseries.spacechat.builder.live.RelationalLiveChatFormatBuilder;
+import dev.spaceseries.spacechat.model.formatting.ChatMessageBody;
+import dev.spaceseries.spacechat.model.formatting.Format;
+import dev.spaceseries.spacechat.util.component.DisplayNameCache;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A private message, prepared for both of its copies
+ * <p>
+ * The "sent" copy (for the sender) and the "received" copy (for the receiver) share the rendered message, the
+ * general replacements and, if the format looks the same for everyone, the rendered format
+ */
+public class PrivateMessagePlan {
+
+    /**
+     * Plugin
+     */
+    private final SpaceChatPlugin plugin;
+
+    /**
+     * The rendered message
+     */
+    private final ChatMessageBody body;
+
+    /**
+     * The format
+     */
+    private final Format format;
+
+    /**
+     * If the format should be rendered with relational placeholders
+     */
+    private final boolean relational;
+
+    /**
+     * The replacements that are the same for both copies
+     */
+    private final Map<String, Component> generalReplacements;
+
+    /**
+     * The rendered format, if it doesn't depend on the players
+     */
+    private Component sharedFormat;
+
+    /**
+     * Construct private message plan
+     *
+     * @param plugin     plugin
+     * @param from       the sender
+     * @param to         the receiver, null if not on this server
+     * @param targetName the name of the receiver
+     * @param body       the rendered message
+     * @param format     format
+     * @param relational use relational placeholders
+     */
+    public PrivateMessagePlan(SpaceChatPlugin plugin, Player from, Player to, String targetName, ChatMessageBody body, Format format, boolean relational) {
+        this.plugin = plugin;
+        this.body = body;
+        this.format = format;
+        this.relational = relational;
+
+        this.generalReplacements = ImmutableMap.of(
+                "%receivername%", Component.text(to != null ? to.getName() : targetName),
+                "%receiverdisplayname%", to != null ? DisplayNameCache.getInstance().get(to) : Component.text(targetName),
+                "%sendername%", Component.text(from.getName()),
+                "%senderdisplayname%", DisplayNameCache.getInstance().get(from),
+                "%message%", body.getParsed()
+        );
+    }
+
+    /**
+     * Renders the copy for the sender
+     *
+     * @param from the sender
+     * @param to   the receiver
+     * @return component
+     */
+    public Component renderSent(Player from, Player to) {
+        return compile(Messages.getInstance(plugin).pmSent, renderFormat(to, from));
+    }
+
+    /**
+     * Renders the copy for the receiver
+     *
+     * @param from the sender
+     * @param to   the receiver, null if not on this server
+     * @return component
+     */
+    public Component renderReceived(Player from, Player to) {
+        return compile(Messages.getInstance(plugin).pmReceived, renderFormat(from, to));
+    }
+
+    /**
+     * Renders the format
+     *
+     * @param player  The player
+     * @param player2 The second player (only used for relational placeholders)
+     * @return component
+     */
+    private Component renderFormat(Player player, Player player2) {
+        if (sharedFormat != null) {
+            return sharedFormat;
+        }
+
+        Component rendered = relational ?
+                new RelationalLiveChatFormatBuilder(plugin).build(player, player2, body, format) :
+                new NormalLiveChatFormatBuilder(plugin).build(player, body, format);
+
+        // both copies look the same, no need to render it again
+        if (!format.isPlayerDependent()) {
+            sharedFormat = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * Compiles a private message language message
+     *
+     * @param message message
+     * @param format  rendered format
+     * @return component
+     */
+    private Component compile(Message message, Component format) {
+        Map<String, Component> replacements = new LinkedHashMap<>();
+        replacements.put("%format%", format);
+        replacements.putAll(generalReplacements);
+        return message.compile(replacements);
+    }
+}
@@ -0,0 +1,116 @@
+package dev.spaceseries.spacechat.chat;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Renders relational chat messages for many viewers at once on a bounded worker pool
+ */
+public class RelationalRenderPool {
+
+    /**
+     * The pool, null if parallel rendering is disabled
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The amount of viewers that are rendered by a single task
+     */
+    private final int chunkSize;
+
+    /**
+     * Construct relational render pool
+     *
+     * @param plugin plugin
+     */
+    public RelationalRenderPool(SpaceChatPlugin plugin) {
+        ConfigurationAdapter config = plugin.getSpaceChatConfig().getAdapter();
+
+        this.chunkSize = Math.max(1, SpaceChatConfigKeys.RELATIONAL_PARALLEL_CHUNK_SIZE.get(config));
+
+        if (SpaceChatConfigKeys.RELATIONAL_PARALLEL_ENABLED.get(config)) {
+            // never use more threads than there are cores
+            int threads = Math.max(1, Math.min(SpaceChatConfigKeys.RELATIONAL_PARALLEL_MAX_THREADS.get(config), Runtime.getRuntime().availableProcessors()));
+            AtomicInteger threadCount = new AtomicInteger();
+
+            this.pool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("SpaceChat Render Worker #" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        } else {
+            this.pool = null;
+        }
+    }
+
+    /**
+     * Renders a component for every viewer
+     * <p>
+     * The returned list is in the same order as the viewers, so messages can be delivered in order
+     *
+     * @param viewers  viewers
+     * @param renderer renderer
+     * @return the components, by viewer index
+     */
+    public List<Component> render(List<? extends Player> viewers, Function<Player, ? extends Component> renderer) {
+        // not worth splitting
+        if (pool == null || viewers.size() <= chunkSize) {
+            List<Component> components = new ArrayList<>(viewers.size());
+            for (Player viewer : viewers) {
+                components.add(renderer.apply(viewer));
+            }
+            return components;
+        }
+
+        // split the viewers into chunks and render them on the pool
+        List<ForkJoinTask<Component[]>> tasks = new ArrayList<>((viewers.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < viewers.size(); from += chunkSize) {
+            List<? extends Player> chunk = viewers.subList(from, Math.min(from + chunkSize, viewers.size()));
+            tasks.add(pool.submit(() -> {
+                Component[] rendered = new Component[chunk.size()];
+                for (int i = 0; i < rendered.length; i++) {
+                    rendered[i] = renderer.apply(chunk.get(i));
+                }
+                return rendered;
+            }));
+        }
+
+        // join in submission order
+        List<Component> components = new ArrayList<>(viewers.size());
+        for (ForkJoinTask<Component[]> task : tasks) {
+            for (Component component : task.join()) {
+                components.add(component);
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Shuts down the pool
+     */
+    public void shutdown() {
+        if (pool == null) {
+            return;
+        }
+
+        pool.shutdown();
+        try {
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
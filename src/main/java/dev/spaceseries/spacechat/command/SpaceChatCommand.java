@@ -2,10 +2,16 @@ package dev.spaceseries.spacechat.command;
 
 import co.aikar.commands.BaseCommand;
 import co.aikar.commands.annotation.*;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import dev.spaceseries.spacechat.Messages;
 import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.builder.live.RenderBudget;
+import dev.spaceseries.spacechat.builder.live.RenderedLineCache;
+import dev.spaceseries.spacechat.external.papi.PlaceholderCache;
+import dev.spaceseries.spacechat.util.component.DeserializationCache;
 import org.bukkit.command.CommandSender;
 
+import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 
 @CommandAlias("spacechat")
@@ -31,10 +37,30 @@ public class SpaceChatCommand extends dev.spaceseries.spacechat.api.command.Spac
 
                     // load configs
                     plugin.loadConfigs();
+                    // load placeholder cache
+                    plugin.loadPlaceholderCache();
+                    // load deserialization cache
+                    plugin.loadDeserializationCache();
+                    // load item chat
+                    plugin.loadItemChat();
+                    // load chat filter
+                    plugin.loadChatFilter();
+                    // load mentions
+                    plugin.loadMentions();
+                    // load emojis
+                    plugin.loadEmojis();
+                    // load render budget
+                    plugin.loadRenderBudget();
+                    // load message parser
+                    plugin.loadMessageParser();
                     // load formats
                     plugin.loadFormats();
+                    // load rendered line cache
+                    plugin.loadRenderedLineCache();
                     // load chat manager
                     plugin.loadChatManager();
+                    // load relational render pool
+                    plugin.loadRelationalRenderPool();
                     // load connection managers
                     plugin.loadSyncServices();
 
@@ -61,6 +87,54 @@ public class SpaceChatCommand extends dev.spaceseries.spacechat.api.command.Spac
         }
     }
 
+    @CommandAlias("spacechat")
+    @Subcommand("stats")
+    @CommandPermission("space.chat.command.stats")
+    public class StatsCommand extends BaseCommand {
+
+        @Default
+        public void onStats(CommandSender sender) {
+            PlaceholderCache placeholderCache = PlaceholderCache.getInstance();
+            CacheStats placeholderStats = placeholderCache.getStats();
+
+            Messages.getInstance(plugin).statsPlaceholderCache.message(sender,
+                    "%hits%", Long.toString(placeholderStats.hitCount()),
+                    "%misses%", Long.toString(placeholderStats.missCount()),
+                    "%hitrate%", String.format(Locale.ROOT, "%.1f", placeholderStats.hitRate() * 100),
+                    "%size%", Long.toString(placeholderCache.getSize()),
+                    "%uncached%", Long.toString(placeholderCache.getUncachedCount())
+            );
+
+            RenderedLineCache renderedLineCache = plugin.getRenderedLineCache();
+            CacheStats renderStats = renderedLineCache.getStats();
+
+            Messages.getInstance(plugin).statsRenderCache.message(sender,
+                    "%hits%", Long.toString(renderStats.hitCount()),
+                    "%misses%", Long.toString(renderStats.missCount()),
+                    "%hitrate%", String.format(Locale.ROOT, "%.1f", renderStats.hitRate() * 100),
+                    "%size%", Long.toString(renderedLineCache.getSize()),
+                    "%uncacheable%", Long.toString(renderedLineCache.getUncacheableCount())
+            );
+
+            DeserializationCache deserializationCache = DeserializationCache.getInstance();
+            CacheStats deserializationStats = deserializationCache.getStats();
+
+            Messages.getInstance(plugin).statsDeserializationCache.message(sender,
+                    "%hits%", Long.toString(deserializationStats.hitCount()),
+                    "%misses%", Long.toString(deserializationStats.missCount()),
+                    "%hitrate%", String.format(Locale.ROOT, "%.1f", deserializationStats.hitRate() * 100),
+                    "%size%", Long.toString(deserializationCache.getSize())
+            );
+
+            RenderBudget renderBudget = plugin.getRenderBudget();
+
+            Messages.getInstance(plugin).statsRenderBudget.message(sender,
+                    "%exceeded%", Long.toString(renderBudget.getExceededCount()),
+                    "%plain%", Long.toString(renderBudget.getPlainCount())
+            );
+        }
+    }
+
     @Default
     @HelpCommand
     public void onDefault(CommandSender sender) {
@@ -6,6 +6,7 @@ import dev.spaceseries.spacechat.api.config.generic.key.ConfigKey;
 import dev.spaceseries.spacechat.api.config.generic.key.SimpleConfigKey;
 import dev.spaceseries.spacechat.storage.impl.sql.mysql.StorageCredentials;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -63,6 +64,7 @@ public class SpaceChatConfigKeys {
     public static ConfigKey<String> PERMISSIONS_BYPASS_IGNORE = key(c -> c.getString("permissions.bypass-ignore"));
     public static ConfigKey<String> PERMISSIONS_BYPASS_DISABLED_PUBLIC = key(c -> c.getString("permissions.bypass-disabled-public-chat"));
     public static ConfigKey<String> PERMISSIONS_BYPASS_DISABLED_PRIVATE = key(c -> c.getString("permissions.bypass-disabled-private-chat"));
+    public static ConfigKey<String> PERMISSIONS_BYPASS_CHAT_FILTER = key(c -> c.getString("permissions.bypass-chat-filter", "space.chat.bypass.filter"));
 
     public static ConfigKey<Boolean> BROADCAST_USE_LANG_WRAPPER = key(c -> c.getBoolean("broadcast.use-lang-wrapper"));
 
@@ -72,8 +74,54 @@ public class SpaceChatConfigKeys {
     public static ConfigKey<Boolean> ITEM_CHAT_WITH_LORE_USE_CUSTOM = key(c -> c.getBoolean("item-chat.with.lore.use-custom"));
     public static ConfigKey<List<String>> ITEM_CHAT_WITH_LORE_CUSTOM = key(c -> c.getStringList("item-chat.with.lore.custom"));
     public static ConfigKey<Integer> ITEM_CHAT_MAX_PER_MESSAGE = key(c -> c.getInteger("item-chat.max-per-message"));
+    public static ConfigKey<Integer> ITEM_CHAT_MAX_TAG_BYTES = key(c -> c.getInteger("item-chat.max-tag-bytes", 8192));
+    public static ConfigKey<Integer> ITEM_CHAT_CACHE_MAXIMUM_SIZE = key(c -> c.getInteger("item-chat.cache.maximum-size", 256));
+    public static ConfigKey<Integer> ITEM_CHAT_CACHE_EXPIRE_AFTER = key(c -> c.getInteger("item-chat.cache.expire-after", 600));
+
+    public static ConfigKey<Boolean> CHAT_FILTER_ENABLED = key(c -> c.getBoolean("chat-filter.enabled", false));
+    public static ConfigKey<String> CHAT_FILTER_MODE = key(c -> c.getString("chat-filter.mode", "replace"));
+    public static ConfigKey<String> CHAT_FILTER_REPLACEMENT = key(c -> c.getString("chat-filter.replacement", "*"));
+    public static ConfigKey<Boolean> CHAT_FILTER_WHOLE_WORDS = key(c -> c.getBoolean("chat-filter.whole-words", false));
+    public static ConfigKey<Boolean> CHAT_FILTER_LEETSPEAK = key(c -> c.getBoolean("chat-filter.leetspeak", true));
+    public static ConfigKey<List<String>> CHAT_FILTER_WORDS = key(c -> c.getStringList("chat-filter.words", Collections.emptyList()));
+    public static ConfigKey<String> CHAT_FILTER_FILE = key(c -> c.getString("chat-filter.file", "filter.txt"));
+
+    public static ConfigKey<Boolean> MENTIONS_ENABLED = key(c -> c.getBoolean("mentions.enabled", false));
+    public static ConfigKey<Boolean> MENTIONS_REQUIRE_AT = key(c -> c.getBoolean("mentions.require-at", false));
+    public static ConfigKey<String> MENTIONS_FORMAT = key(c -> c.getString("mentions.format", "&e@%name%"));
+    public static ConfigKey<String> MENTIONS_SOUND = key(c -> c.getString("mentions.sound.name", "ENTITY_EXPERIENCE_ORB_PICKUP"));
+    public static ConfigKey<Double> MENTIONS_SOUND_VOLUME = key(c -> c.getDouble("mentions.sound.volume", 1.0));
+    public static ConfigKey<Double> MENTIONS_SOUND_PITCH = key(c -> c.getDouble("mentions.sound.pitch", 1.0));
+    public static ConfigKey<Integer> MENTIONS_NETWORK_REFRESH_INTERVAL = key(c -> c.getInteger("mentions.network-refresh-interval", 10));
+
+    public static ConfigKey<Boolean> RENDER_BUDGET_ENABLED = key(c -> c.getBoolean("render-budget.enabled", true));
+    public static ConfigKey<Integer> RENDER_BUDGET_MAX_COMPONENTS = key(c -> c.getInteger("render-budget.max-components", 256));
+    public static ConfigKey<Integer> RENDER_BUDGET_MAX_DEPTH = key(c -> c.getInteger("render-budget.max-depth", 16));
+    public static ConfigKey<Integer> RENDER_BUDGET_MAX_ITEM_REPLACEMENTS = key(c -> c.getInteger("render-budget.max-item-replacements", 3));
+
+    public static ConfigKey<Boolean> NORMALIZE_COMPONENTS = key(c -> c.getBoolean("normalize-components", true));
+
+    public static ConfigKey<Boolean> PAPER_USE_CHAT_EVENT = key(c -> c.getBoolean("paper.use-chat-event", false));
+    public static ConfigKey<Boolean> PAPER_NATIVE_DELIVERY = key(c -> c.getBoolean("paper.native-delivery", false));
 
     public static ConfigKey<Boolean> USE_RELATIONAL_PLACEHOLDERS = key(c -> c.getBoolean("use-relational-placeholders"));
+    public static ConfigKey<Boolean> RELATIONAL_PARALLEL_ENABLED = key(c -> c.getBoolean("relational-parallel-rendering.enabled", false));
+    public static ConfigKey<Integer> RELATIONAL_PARALLEL_MAX_THREADS = key(c -> c.getInteger("relational-parallel-rendering.max-threads", 4));
+    public static ConfigKey<Integer> RELATIONAL_PARALLEL_CHUNK_SIZE = key(c -> c.getInteger("relational-parallel-rendering.chunk-size", 32));
+
+    public static ConfigKey<Integer> FORMAT_CACHE_EXPIRE_AFTER = key(c -> c.getInteger("format-cache.expire-after", 10));
+
+    public static ConfigKey<Boolean> RENDER_CACHE_ENABLED = key(c -> c.getBoolean("render-cache.enabled", true));
+    public static ConfigKey<Integer> RENDER_CACHE_MAXIMUM_SIZE = key(c -> c.getInteger("render-cache.maximum-size", 1000));
+    public static ConfigKey<Integer> RENDER_CACHE_EXPIRE_AFTER = key(c -> c.getInteger("render-cache.expire-after", 30));
+
+    public static ConfigKey<Boolean> DESERIALIZATION_CACHE_ENABLED = key(c -> c.getBoolean("deserialization-cache.enabled", true));
+    public static ConfigKey<Integer> DESERIALIZATION_CACHE_MAXIMUM_SIZE = key(c -> c.getInteger("deserialization-cache.maximum-size", 2000));
+
+    public static ConfigKey<Boolean> PLACEHOLDER_CACHE_ENABLED = key(c -> c.getBoolean("placeholder-cache.enabled", true));
+    public static ConfigKey<Integer> PLACEHOLDER_CACHE_MAXIMUM_SIZE = key(c -> c.getInteger("placeholder-cache.maximum-size", 10000));
+    public static ConfigKey<String> PLACEHOLDER_CACHE_DEFAULT = key(c -> c.getString("placeholder-cache.default", "volatile"));
+    public static ConfigKey<Map<String, String>> PLACEHOLDER_CACHE_PLACEHOLDERS = key(c -> ImmutableMap.copyOf(c.getStringMap("placeholder-cache.placeholders", ImmutableMap.of())));
 
     private static final List<SimpleConfigKey<?>> KEYS = KeyedConfiguration.initialise(SpaceChatConfigKeys.class);
 
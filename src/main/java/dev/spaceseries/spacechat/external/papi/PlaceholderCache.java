@@ -0,0 +1,297 @@
+package dev.spaceseries.spacechat.external.papi;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Caches the values of (non-relational) placeholders per player
+ * <p>
+ * Every placeholder can be configured to be static (cached until the player quits), volatile (never cached) or
+ * to be cached for a certain amount of time. Values are keyed by player and placeholder, a player's values are dropped
+ * when they quit.
+ */
+public class PlaceholderCache {
+
+    /**
+     * Never cache the placeholder
+     */
+    private static final long VOLATILE = -1;
+
+    /**
+     * Cache the placeholder until the player quits
+     */
+    private static final long STATIC = 0;
+
+    /**
+     * Instance of this class
+     */
+    private static PlaceholderCache instance;
+
+    /**
+     * Initializes the cache (again), using the current configuration
+     *
+     * @param plugin plugin
+     */
+    public static void init(SpaceChatPlugin plugin) {
+        instance = new PlaceholderCache(plugin);
+    }
+
+    /**
+     * Returns the instance of the cache
+     *
+     * @return cache, null if not initialized
+     */
+    public static PlaceholderCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Sets the placeholders of a single placeholder, going through the cache if it's initialized
+     *
+     * @param player      player
+     * @param placeholder placeholder (including the surrounding percent signs)
+     * @return value
+     */
+    public static String setPlaceholders(Player player, String placeholder) {
+        PlaceholderCache cache = instance;
+        if (cache == null) {
+            return PlaceholderAPI.setPlaceholders(player, placeholder);
+        }
+        return cache.get(player, placeholder);
+    }
+
+    /**
+     * The time to live of placeholders that aren't configured
+     */
+    private final long defaultTtl;
+
+    /**
+     * The time to live of every configured placeholder in nanoseconds (or {@link #STATIC} / {@link #VOLATILE})
+     */
+    private final Map<String, Long> ttls;
+
+    /**
+     * The cached values, by player and placeholder, null if the cache is disabled
+     */
+    private final Cache<Key, String> cache;
+
+    /**
+     * The amount of lookups that weren't cached because the placeholder is volatile
+     */
+    private final LongAdder uncached = new LongAdder();
+
+    /**
+     * Construct placeholder cache
+     *
+     * @param plugin plugin
+     */
+    private PlaceholderCache(SpaceChatPlugin plugin) {
+        ConfigurationAdapter config = plugin.getSpaceChatConfig().getAdapter();
+
+        this.defaultTtl = parseTtl(plugin, "default", SpaceChatConfigKeys.PLACEHOLDER_CACHE_DEFAULT.get(config));
+        this.ttls = new HashMap<>();
+        SpaceChatConfigKeys.PLACEHOLDER_CACHE_PLACEHOLDERS.get(config).forEach((placeholder, value) -> {
+            String normalized = placeholder.startsWith("%") ? placeholder : "%" + placeholder + "%";
+            ttls.put(normalized, parseTtl(plugin, placeholder, value));
+        });
+        this.cache = SpaceChatConfigKeys.PLACEHOLDER_CACHE_ENABLED.get(config) ? Caffeine.newBuilder()
+                .maximumSize(SpaceChatConfigKeys.PLACEHOLDER_CACHE_MAXIMUM_SIZE.get(config))
+                .expireAfter(new TtlExpiry())
+                .recordStats()
+                .build() : null;
+    }
+
+    /**
+     * Returns the value of a single placeholder
+     *
+     * @param player      player
+     * @param placeholder placeholder (including the surrounding percent signs)
+     * @return value
+     */
+    public String get(Player player, String placeholder) {
+        if (cache == null || player == null || ttlOf(placeholder) == VOLATILE) {
+            uncached.increment();
+            return PlaceholderAPI.setPlaceholders(player, placeholder);
+        }
+
+        Key key = new Key(player.getUniqueId(), placeholder);
+        String value = cache.get(key, k -> PlaceholderAPI.setPlaceholders(player, k.placeholder));
+
+        // don't keep values of players that already quit, they would never be invalidated
+        if (!player.isOnline()) {
+            cache.invalidate(key);
+        }
+        return value;
+    }
+
+    /**
+     * Invalidates all cached placeholders of a player
+     *
+     * @param uuid uuid
+     */
+    public void invalidate(UUID uuid) {
+        if (cache != null) {
+            cache.invalidateAll(keysOf(uuid));
+        }
+    }
+
+    /**
+     * Invalidates all cached placeholders
+     */
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache
+     *
+     * @return stats
+     */
+    public CacheStats getStats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    /**
+     * Returns the (approximate) amount of cached values
+     *
+     * @return size
+     */
+    public long getSize() {
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+
+    /**
+     * Returns the amount of lookups that went straight to PlaceholderAPI (volatile placeholders or cache disabled)
+     *
+     * @return uncached lookups
+     */
+    public long getUncachedCount() {
+        return uncached.sum();
+    }
+
+    /**
+     * Returns the cached keys of a player
+     *
+     * @param uuid uuid
+     * @return keys
+     */
+    private List<Key> keysOf(UUID uuid) {
+        List<Key> keys = new ArrayList<>();
+        for (Key key : cache.asMap().keySet()) {
+            if (key.uuid.equals(uuid)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the time to live of a placeholder
+     *
+     * @param placeholder placeholder
+     * @return ttl
+     */
+    private long ttlOf(String placeholder) {
+        Long ttl = ttls.get(placeholder);
+        return ttl != null ? ttl : defaultTtl;
+    }
+
+    /**
+     * Parses a time to live from the configuration
+     * <p>
+     * Either "static", "volatile" or an amount of seconds
+     *
+     * @param plugin      plugin
+     * @param placeholder the placeholder, for logging
+     * @param value       value
+     * @return ttl in nanoseconds, or {@link #STATIC} / {@link #VOLATILE}
+     */
+    private static long parseTtl(SpaceChatPlugin plugin, String placeholder, String value) {
+        if (value == null) {
+            return VOLATILE;
+        }
+
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "static":
+                return STATIC;
+            case "volatile":
+                return VOLATILE;
+            default:
+                try {
+                    long seconds = Long.parseLong(value.trim());
+                    return seconds > 0 ? TimeUnit.SECONDS.toNanos(seconds) : VOLATILE;
+                } catch (NumberFormatException e) {
+                    plugin.getLogger().log(Level.WARNING, "Invalid placeholder cache value '" + value + "' for " + placeholder + ", treating it as volatile");
+                    return VOLATILE;
+                }
+        }
+    }
+
+    /**
+     * Expires every value after the time to live of its placeholder, static values never expire
+     */
+    private final class TtlExpiry implements Expiry<Key, String> {
+
+        @Override
+        public long expireAfterCreate(Key key, String value, long currentTime) {
+            long ttl = ttlOf(key.placeholder);
+            return ttl == STATIC ? Long.MAX_VALUE : ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, String value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Key key, String value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * A cached placeholder of a player
+     */
+    private static final class Key {
+
+        private final UUID uuid;
+        private final String placeholder;
+
+        private Key(UUID uuid, String placeholder) {
+            this.uuid = uuid;
+            this.placeholder = placeholder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return uuid.equals(key.uuid) && placeholder.equals(key.placeholder);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * uuid.hashCode() + placeholder.hashCode();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package dev.spaceseries.spacechat.external.papi;
+
+import dev.spaceseries.spacechat.util.color.ColorCodec;
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class PlaceholderTemplate {
+
+    /**
+     * The prefix of relational placeholders
+     */
+    private static final String RELATIONAL_PREFIX = "%rel_";
+
+    /**
+     * Compiles a string into a placeholder template
+     * <p>
+     * The string is split the same way PlaceholderAPI's own replacer splits it, so that resolving every
+     * placeholder on its own gives the exact same result as resolving the whole string at once
+     *
+     * @param source source
+     * @return template
+     */
+    public static PlaceholderTemplate compile(String source) {
+        List<String> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = source.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            if (c != '%' || i + 1 >= length) {
+                literal.append(c);
+                continue;
+            }
+
+            int start = i;
+            boolean identified = false;
+            boolean closed = false;
+
+            while (++i < length) {
+                char p = source.charAt(i);
+                if (p == ' ' && !identified) {
+                    break;
+                }
+                if (p == '%') {
+                    closed = true;
+                    break;
+                }
+                if (p == '_') {
+                    identified = true;
+                }
+            }
+
+            // not a placeholder (unclosed, has a space in the identifier or is just "%%")
+            if (!closed || i == start + 1) {
+                literal.append(source, start, Math.min(i + 1, length));
+                continue;
+            }
+
+            segments.add(literal.toString());
+            literal.setLength(0);
+            segments.add(source.substring(start, i + 1));
+        }
+        segments.add(literal.toString());
+
+        return new PlaceholderTemplate(source, segments.toArray(new String[0]));
+    }
+
+    /**
+     * The source string
+     */
+    private final String source;
+
+    /**
+     * The segments of the template
+     * <p>
+     * Even indexes are literal text, odd indexes are placeholders (including the surrounding percent signs)
+     */
+    private final String[] segments;
+
+    /**
+     * If the template contains regular placeholders
+     */
+    private final boolean placeholders;
+
+    /**
+     * If the template contains relational placeholders
+     */
+    private final boolean relationalPlaceholders;
+
+    /**
+     * Construct placeholder template
+     *
+     * @param source   source
+     * @param segments segments
+     */
+    private PlaceholderTemplate(String source, String[] segments) {
+        this.source = source;
+        this.segments = segments;
+
+        boolean placeholders = false;
+        boolean relationalPlaceholders = false;
+        for (int i = 1; i < segments.length; i += 2) {
+            if (isRelational(segments[i])) {
+                relationalPlaceholders = true;
+            } else {
+                placeholders = true;
+            }
+        }
+        this.placeholders = placeholders;
+        this.relationalPlaceholders = relationalPlaceholders;
+    }
+
+    /**
+     * Returns the source string
+     *
+     * @return source
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns true if the template doesn't contain any placeholders at all
+     *
+     * @return is static
+     */
+    public boolean isStatic() {
+        return segments.length == 1;
+    }
+
+    /**
+     * Returns true if the template contains regular placeholders
+     *
+     * @return has placeholders
+     */
+    public boolean hasPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * Returns true if the template contains relational placeholders
+     *
+     * @return has relational placeholders
+     */
+    public boolean hasRelationalPlaceholders() {
+        return relationalPlaceholders;
+    }
+
+    /**
+     * Resolves all regular placeholders (through the {@link PlaceholderCache})
+     * <p>
+     * Relational placeholders are kept as they are
+     *
+     * @param player player
+     * @return resolved string
+     */
+    public String resolve(Player player) {
+        if (!placeholders) {
+            return source;
+        }
+
+        StringBuilder builder = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ((i & 1) == 0 || isRelational(segment)) {
+                builder.append(segment);
+            } else {
+                builder.append(PlaceholderCache.setPlaceholders(player, segment));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Resolves all regular placeholders (through the {@link PlaceholderCache}), and replaces every section sign of
+     * the result with an ampersand while writing it
+     * <p>
+     * Relational placeholders are kept as they are
+     *
+     * @param player player
+     * @return resolved string
+     */
+    public String resolveSectionToAmpersand(Player player) {
+        if (!placeholders) {
+            return ColorCodec.sectionToAmpersand(source);
+        }
+
+        StringBuilder builder = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ((i & 1) == 0 || isRelational(segment)) {
+                ColorCodec.appendSectionToAmpersand(builder, segment);
+            } else {
+                ColorCodec.appendSectionToAmpersand(builder, PlaceholderCache.setPlaceholders(player, segment));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Resolves all regular and relational placeholders
+     *
+     * @param player  player
+     * @param player2 the second player
+     * @return resolved string
+     */
+    public String resolveRelational(Player player, Player player2) {
+        if (isStatic()) {
+            return source;
+        }
+
+        StringBuilder builder = new StringBuilder(source.length() + 16);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ((i & 1) == 0) {
+                builder.append(segment);
+            } else if (isRelational(segment)) {
+                builder.append(PlaceholderAPI.setRelationalPlaceholders(player, player2, segment));
+            } else {
+                builder.append(PlaceholderCache.setPlaceholders(player, segment));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns true if a placeholder is relational
+     *
+     * @param placeholder placeholder
+     * @return is relational
+     */
+    private static boolean isRelational(String placeholder) {
+        return placeholder.startsWith(RELATIONAL_PREFIX);
+    }
+}
@@ -1,7 +1,9 @@
 package dev.spaceseries.spacechat.listener;
 
 import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.external.papi.PlaceholderCache;
 import dev.spaceseries.spacechat.model.User;
+import dev.spaceseries.spacechat.util.component.DisplayNameCache;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -9,6 +11,8 @@ import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
+import java.util.UUID;
+
 public class JoinQuitListener implements Listener {
 
     private final SpaceChatPlugin plugin;
@@ -29,6 +33,18 @@ public class JoinQuitListener implements Listener {
 
         // remove from online list
         plugin.getServerSyncServiceManager().getDataService().removePlayer(event.getPlayer().getName());
+
+        // forget cached placeholders
+        PlaceholderCache.getInstance().invalidate(event.getPlayer().getUniqueId());
+
+        // forget the chosen formats
+        invalidateFormats(event.getPlayer().getUniqueId());
+
+        // forget the display name
+        DisplayNameCache.getInstance().invalidate(event.getPlayer().getUniqueId());
+
+        // can't be mentioned anymore
+        plugin.getMentionMatcher().remove(event.getPlayer().getName());
     }
 
     @EventHandler(ignoreCancelled = true, priority = EventPriority.MONITOR)
@@ -44,5 +60,21 @@ public class JoinQuitListener implements Listener {
 
         // add to online list
         plugin.getServerSyncServiceManager().getDataService().addPlayer(event.getPlayer().getName());
+
+        // permissions may have changed while the player was offline
+        invalidateFormats(event.getPlayer().getUniqueId());
+
+        // can be mentioned now
+        plugin.getMentionMatcher().add(event.getPlayer().getName());
+    }
+
+    /**
+     * Forgets the chosen chat and private formats of a player
+     *
+     * @param uuid uuid
+     */
+    private void invalidateFormats(UUID uuid) {
+        plugin.getChatFormatManager().invalidate(uuid);
+        plugin.getPrivateFormatManager().invalidate(uuid);
     }
 }
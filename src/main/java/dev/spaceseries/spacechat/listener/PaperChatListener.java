@@ -0,0 +1,267 @@
+package dev.spaceseries.spacechat.listener;
+
+import dev.spaceseries.spacechat.Messages;
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.builder.live.RelationalFormatPlan;
+import dev.spaceseries.spacechat.chat.ChatFormatManager;
+import dev.spaceseries.spacechat.chat.ChatManager;
+import dev.spaceseries.spacechat.model.Channel;
+import dev.spaceseries.spacechat.model.ChatType;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.model.User;
+import dev.spaceseries.spacechat.model.formatting.ChatFormat;
+import dev.spaceseries.spacechat.model.formatting.ChatMessageBody;
+import dev.spaceseries.spacechat.model.formatting.Format;
+import dev.spaceseries.spacechat.util.platform.NativeAdventure;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerEvent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Listens for chat messages with Paper's AsyncChatEvent
+ * <p>
+ * Instead of clearing the recipients and sending the message to everyone ourselves, the message is rendered once
+ * and handed to the event's chat renderer, which Paper uses for every viewer (including the console). Relational
+ * messages are rendered per viewer by the renderer. Paper's API isn't available when compiling, so the event is
+ * accessed through reflection.
+ * <p>
+ * Channel messages, and messages of players whose current channel isn't known right away (e.g. it has to be looked up
+ * in redis), are sent the default way.
+ */
+public class PaperChatListener implements Listener {
+
+    /**
+     * Paper's chat event
+     */
+    private static final String EVENT_CLASS = "io.papermc.paper.event.player.AsyncChatEvent";
+
+    /**
+     * Paper's chat renderer
+     */
+    private static final String RENDERER_CLASS = "io.papermc.paper.chat.ChatRenderer";
+
+    private final SpaceChatPlugin plugin;
+
+    /**
+     * The chat renderer class
+     */
+    private final Class<?> rendererClass;
+
+    /**
+     * Returns the (native) message of the event
+     */
+    private final MethodHandle message;
+
+    /**
+     * Returns the viewers of the event
+     */
+    private final MethodHandle viewers;
+
+    /**
+     * Sets the renderer of the event
+     */
+    private final MethodHandle renderer;
+
+    private PaperChatListener(SpaceChatPlugin plugin, Class<?> eventClass, Class<?> rendererClass) throws ReflectiveOperationException {
+        this.plugin = plugin;
+        this.rendererClass = rendererClass;
+
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        this.message = lookup.unreflect(eventClass.getMethod("message"));
+        this.viewers = lookup.unreflect(eventClass.getMethod("viewers"));
+        this.renderer = lookup.unreflect(eventClass.getMethod("renderer", rendererClass));
+    }
+
+    /**
+     * Registers the listener, if the server has Paper's chat event
+     *
+     * @param plugin plugin
+     * @return true if registered
+     */
+    public static boolean register(SpaceChatPlugin plugin) {
+        if (!NativeAdventure.isAvailable()) {
+            return false;
+        }
+
+        Class<? extends Event> eventClass;
+        PaperChatListener listener;
+        try {
+            eventClass = Class.forName(EVENT_CLASS).asSubclass(Event.class);
+            listener = new PaperChatListener(plugin, eventClass, Class.forName(RENDERER_CLASS));
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return false;
+        }
+
+        // at the MONITOR priority (runs near LAST) to accommodate for plugins that block chat (mutes, anti-bots, etc)
+        plugin.getServer().getPluginManager().registerEvent(eventClass, listener, EventPriority.MONITOR, (l, event) -> {
+            if (eventClass.isInstance(event)) {
+                listener.onAsyncChat((PlayerEvent) event);
+            }
+        }, plugin, true);
+        return true;
+    }
+
+    /**
+     * Listens for chat messages
+     *
+     * @param event The event
+     */
+    private void onAsyncChat(PlayerEvent event) {
+        Player player = event.getPlayer();
+        Set<?> viewers = invoke(this.viewers, event);
+        String message = NativeAdventure.toPlainText(invoke(this.message, event));
+
+        // check if they have chat enabled
+        User user = plugin.getUserManager().get(player.getUniqueId());
+        if (user != null && !user.hasChatEnabled(ChatType.PUBLIC)) {
+            viewers.clear();
+            Messages.getInstance(plugin).chatDisabled.message(player);
+            return;
+        }
+
+        // get player's current channel, the renderer has to be set before the event is done
+        CompletableFuture<Channel> lookup = plugin.getServerSyncServiceManager().getDataService().getCurrentChannel(player.getUniqueId());
+        if (lookup != null && !lookup.isDone()) {
+            // the event may be called on the main thread, so never wait for the lookup (e.g. a redis round trip),
+            // send the message the default way once it's done instead
+            viewers.clear();
+            lookup.thenAccept(channel -> {
+                if (channel != null && player.hasPermission(channel.getPermission())) {
+                    plugin.getChannelManager().send(player, null, message, channel);
+                } else {
+                    plugin.getChatFormatManager().send(player, message, null);
+                }
+            });
+            return;
+        }
+
+        Channel current;
+        try {
+            current = lookup != null ? lookup.getNow(null) : null;
+        } catch (CompletionException | CancellationException e) {
+            plugin.getLogger().log(Level.WARNING, "Unable to get the current channel of " + player.getName() + ": " + e.getMessage());
+            current = null;
+        }
+
+        // channels are only sent to their subscribers, send them the default way
+        if (current != null && player.hasPermission(current.getPermission())) {
+            viewers.clear();
+            plugin.getChannelManager().send(player, null, message, current);
+            return;
+        }
+
+        ChatManager chatManager = plugin.getChatManager();
+        ChatFormatManager chatFormatManager = plugin.getChatFormatManager();
+        ChatFormat applicableFormat = chatFormatManager.getFormat(player);
+        Format format = applicableFormat == null ? null : applicableFormat.getFormat();
+
+        // check the sender's permissions once for the whole message
+        SenderCapabilities capabilities = SenderCapabilities.of(player, plugin.getSpaceChatConfig().getAdapter());
+        boolean canBypassIgnore = capabilities.canBypassIgnore();
+        boolean canBypassDisabled = capabilities.canBypassDisabledPublic();
+
+        // only keep the players that receive the message
+        UUID from = player.getUniqueId();
+        viewers.removeIf(viewer -> viewer instanceof Player && !chatManager.canReceiveChatMessage(from, (Player) viewer, canBypassIgnore, canBypassDisabled));
+
+        ChatMessageBody body = chatManager.buildChatMessageBody(message, capabilities);
+        if (chatFormatManager.isRelational()) {
+            RelationalFormatPlan plan = chatManager.planRelationalChatMessage(player, body, format);
+            Object sample = NativeAdventure.toNative(plan != null ? plan.renderSample() : chatManager.renderDefaultChatMessage(player, message));
+
+            // only the relational parts are rendered for every player, all at once so it can be done in parallel
+            Map<Object, Component> rendered = new IdentityHashMap<>();
+            if (plan != null) {
+                List<Player> players = new ArrayList<>();
+                for (Object viewer : viewers) {
+                    if (viewer instanceof Player) {
+                        players.add((Player) viewer);
+                    }
+                }
+
+                List<Component> components = plugin.getRelationalRenderPool().render(players, plan::render);
+                for (int i = 0; i < players.size(); i++) {
+                    rendered.put(players.get(i), components.get(i));
+                }
+            }
+
+            invoke(this.renderer, event, renderer(viewer -> {
+                Component component = rendered.get(viewer);
+                return component != null ? NativeAdventure.toNative(component) : sample;
+            }));
+
+            // log to storage
+            chatManager.logChatMessage(player, message);
+        } else {
+            // the same for everyone, so it's only converted once
+            Component components = chatManager.renderChatMessage(player, body, format);
+            Object nativeComponents = NativeAdventure.toNative(components);
+            invoke(this.renderer, event, renderer(viewer -> nativeComponents));
+
+            // log to storage and send via redis
+            chatManager.publishChatMessage(player, message, null, components, canBypassIgnore, canBypassDisabled);
+        }
+
+        // ping mentioned players, log flagged messages
+        chatManager.notifyChatMessage(player, body);
+    }
+
+    /**
+     * Creates a chat renderer
+     *
+     * @param render renders the native component of a viewer
+     * @return chat renderer
+     */
+    private Object renderer(Function<Object, Object> render) {
+        return Proxy.newProxyInstance(rendererClass.getClassLoader(), new Class<?>[]{rendererClass}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return "SpaceChatRenderer";
+                }
+            }
+
+            // render(Player source, Component sourceDisplayName, Component message, Audience viewer)
+            return render.apply(args[args.length - 1]);
+        });
+    }
+
+    /**
+     * Invokes a method handle
+     *
+     * @param handle    handle
+     * @param arguments arguments
+     * @param <T>       return type
+     * @return result
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T invoke(MethodHandle handle, Object... arguments) {
+        try {
+            return (T) handle.invokeWithArguments(arguments);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Could not access the chat event", throwable);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package dev.spaceseries.spacechat.model;
+
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import me.mattstudios.msg.base.MessageOptions;
+import me.mattstudios.msg.base.internal.Format;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.entity.Player;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A snapshot of everything a sender is allowed to do in a single message
+ * <p>
+ * Computed once per message, so that the builders and parsers don't have to check the same permissions over and over again
+ */
+public final class SenderCapabilities {
+
+    /**
+     * Capability flags
+     */
+    public static final int USE_CHAT_COLORS = 1;
+    public static final int USE_CHAT_LINKS = 1 << 1;
+    public static final int USE_ITEM_CHAT = 1 << 2;
+    public static final int BYPASS_IGNORE = 1 << 3;
+    public static final int BYPASS_DISABLED_PUBLIC = 1 << 4;
+    public static final int BYPASS_DISABLED_PRIVATE = 1 << 5;
+    public static final int BYPASS_CHAT_FILTER = 1 << 6;
+
+    /**
+     * The formats that come with the chat colors permission
+     */
+    private static final Set<Format> COLOR_FORMATS = EnumSet.of(Format.COLOR, Format.HEX, Format.GRADIENT, Format.RAINBOW);
+
+    /**
+     * The formats that produce a component for every single character
+     */
+    private static final Set<Format> PER_CHARACTER_FORMATS = EnumSet.of(Format.GRADIENT, Format.RAINBOW);
+
+    /**
+     * Chat message serializers, indexed by the color and link flags
+     */
+    private static final LegacyComponentSerializer[] CHAT_MESSAGE_SERIALIZERS = new LegacyComponentSerializer[4];
+
+    static {
+        for (int i = 0; i < CHAT_MESSAGE_SERIALIZERS.length; i++) {
+            LegacyComponentSerializer.Builder legacyComponentSerializerBuilder = LegacyComponentSerializer.builder();
+
+            if ((i & USE_CHAT_COLORS) != 0) {
+                legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.hexColors();
+                legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.character('&');
+            }
+
+            if ((i & USE_CHAT_LINKS) != 0) {
+                legacyComponentSerializerBuilder = legacyComponentSerializerBuilder.extractUrls();
+            }
+
+            CHAT_MESSAGE_SERIALIZERS[i] = legacyComponentSerializerBuilder.build();
+        }
+    }
+
+    /**
+     * Capabilities of a sender without a player (e.g. a message coming from another server)
+     */
+    public static final SenderCapabilities NONE = new SenderCapabilities(null, 0, EnumSet.noneOf(Format.class));
+
+    /**
+     * Computes the capabilities of a player
+     *
+     * @param player player
+     * @param config config
+     * @return capabilities
+     */
+    public static SenderCapabilities of(Player player, ConfigurationAdapter config) {
+        if (player == null) {
+            return NONE;
+        }
+
+        int flags = 0;
+        Set<Format> formats = EnumSet.noneOf(Format.class);
+
+        if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_COLORS.get(config))) {
+            flags |= USE_CHAT_COLORS;
+            formats.addAll(COLOR_FORMATS);
+        }
+        if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_LINKS.get(config))) {
+            flags |= USE_CHAT_LINKS;
+        }
+        if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_USE_ITEM_CHAT.get(config))) {
+            flags |= USE_ITEM_CHAT;
+        }
+        if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_IGNORE.get(config))) {
+            flags |= BYPASS_IGNORE;
+        }
+        if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_DISABLED_PUBLIC.get(config))) {
+            flags |= BYPASS_DISABLED_PUBLIC;
+        }
+        if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_DISABLED_PRIVATE.get(config))) {
+            flags |= BYPASS_DISABLED_PRIVATE;
+        }
+        if (player.hasPermission(SpaceChatConfigKeys.PERMISSIONS_BYPASS_CHAT_FILTER.get(config))) {
+            flags |= BYPASS_CHAT_FILTER;
+        }
+
+        String formattingPermission = SpaceChatConfigKeys.PERMISSIONS_USE_CHAT_FORMATTING.get(config);
+        for (Format f : Format.ALL) {
+            if (player.hasPermission(formattingPermission + f.name().toLowerCase(Locale.ROOT))) {
+                formats.add(f);
+            }
+        }
+
+        return new SenderCapabilities(player, flags, formats);
+    }
+
+    /**
+     * The player
+     */
+    private final Player player;
+
+    /**
+     * The capability flags
+     */
+    private final int flags;
+
+    /**
+     * The allowed formats, as a bit mask of their ordinals
+     */
+    private final long formatFlags;
+
+    /**
+     * The message options built from the allowed formats
+     */
+    private final MessageOptions messageOptions;
+
+    /**
+     * Construct sender capabilities
+     *
+     * @param player  player
+     * @param flags   flags
+     * @param formats allowed formats
+     */
+    private SenderCapabilities(Player player, int flags, Set<Format> formats) {
+        this.player = player;
+        this.flags = flags;
+
+        long formatFlags = 0;
+        for (Format format : formats) {
+            formatFlags |= 1L << format.ordinal();
+        }
+        this.formatFlags = formatFlags;
+
+        MessageOptions.Builder messageOptionsBuilder = MessageOptions.builder(Format.NONE);
+        formats.forEach(messageOptionsBuilder::addFormat);
+        this.messageOptions = messageOptionsBuilder.build();
+    }
+
+    /**
+     * Returns the player
+     *
+     * @return player, null if there is none
+     */
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns the capability flags
+     *
+     * @return flags
+     */
+    public int getFlags() {
+        return flags;
+    }
+
+    /**
+     * Returns the allowed formats, as a bit mask of their ordinals
+     *
+     * @return format flags
+     */
+    public long getFormatFlags() {
+        return formatFlags;
+    }
+
+    /**
+     * Returns true if the sender has a capability
+     *
+     * @param flag flag
+     * @return has capability
+     */
+    public boolean has(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public boolean canUseChatColors() {
+        return has(USE_CHAT_COLORS);
+    }
+
+    public boolean canUseChatLinks() {
+        return has(USE_CHAT_LINKS);
+    }
+
+    public boolean canUseItemChat() {
+        return has(USE_ITEM_CHAT);
+    }
+
+    public boolean canBypassIgnore() {
+        return has(BYPASS_IGNORE);
+    }
+
+    public boolean canBypassDisabledPublic() {
+        return has(BYPASS_DISABLED_PUBLIC);
+    }
+
+    public boolean canBypassDisabledPrivate() {
+        return has(BYPASS_DISABLED_PRIVATE);
+    }
+
+    public boolean canBypassChatFilter() {
+        return has(BYPASS_CHAT_FILTER);
+    }
+
+    /**
+     * Returns the message options for the formats the sender is allowed to use
+     *
+     * @return message options
+     */
+    public MessageOptions getMessageOptions() {
+        return messageOptions;
+    }
+
+    /**
+     * Returns the message options for the formats the sender is allowed to use, except the ones that produce a
+     * component for every single character (gradients and rainbows)
+     *
+     * @return message options
+     */
+    public MessageOptions getReducedMessageOptions() {
+        MessageOptions.Builder messageOptionsBuilder = MessageOptions.builder(Format.NONE);
+        for (Format format : Format.values()) {
+            if ((formatFlags & (1L << format.ordinal())) != 0 && !PER_CHARACTER_FORMATS.contains(format)) {
+                messageOptionsBuilder.addFormat(format);
+            }
+        }
+        return messageOptionsBuilder.build();
+    }
+
+    /**
+     * Returns the legacy component serializer for the sender's chat messages
+     *
+     * @return legacy component serializer
+     */
+    public LegacyComponentSerializer getChatMessageSerializer() {
+        return CHAT_MESSAGE_SERIALIZERS[flags & (USE_CHAT_COLORS | USE_CHAT_LINKS)];
+    }
+}
@@ -0,0 +1,141 @@
+package dev.spaceseries.spacechat.model.formatting;
+
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.parser.MessageParser;
+import net.kyori.adventure.text.Component;
+
+/**
+ * The rendered body of a chat message
+ * <p>
+ * Rendered once per message and shared by every {@link FormatPartTemplate#CHAT_MESSAGE_PLACEHOLDER} slot of a format.
+ * The components are parsed exactly once, even if many viewers are rendered at the same time.
+ */
+public final class ChatMessageBody {
+
+    /**
+     * The raw message
+     */
+    private final String raw;
+
+    /**
+     * The message with the sender's formats applied
+     */
+    private final Component parsed;
+
+    /**
+     * The formatted message as a legacy (section) string
+     */
+    private final String formatted;
+
+    /**
+     * The capabilities of the sender
+     */
+    private final SenderCapabilities capabilities;
+
+    /**
+     * The parser that is used for the message components
+     */
+    private final MessageParser messageParser;
+
+    /**
+     * The message component for legacy text parts (lazily rendered)
+     */
+    private volatile Component component;
+
+    /**
+     * The message component for MiniMessage line parts (lazily rendered)
+     */
+    private volatile Component lineComponent;
+
+    /**
+     * Construct chat message body
+     *
+     * @param raw           raw message
+     * @param parsed        parsed message
+     * @param formatted     formatted message
+     * @param capabilities  sender capabilities
+     * @param messageParser message parser
+     */
+    public ChatMessageBody(String raw, Component parsed, String formatted, SenderCapabilities capabilities, MessageParser messageParser) {
+        this.raw = raw;
+        this.parsed = parsed;
+        this.formatted = formatted;
+        this.capabilities = capabilities;
+        this.messageParser = messageParser;
+    }
+
+    /**
+     * Returns the raw message
+     *
+     * @return raw message
+     */
+    public String getRaw() {
+        return raw;
+    }
+
+    /**
+     * Returns the message with the sender's formats applied
+     *
+     * @return parsed message
+     */
+    public Component getParsed() {
+        return parsed;
+    }
+
+    /**
+     * Returns the formatted message as a legacy (section) string
+     *
+     * @return formatted message
+     */
+    public String getFormatted() {
+        return formatted;
+    }
+
+    /**
+     * Returns the capabilities of the sender
+     *
+     * @return capabilities
+     */
+    public SenderCapabilities getCapabilities() {
+        return capabilities;
+    }
+
+    /**
+     * Returns the message component for legacy text parts
+     *
+     * @return component
+     */
+    public Component getComponent() {
+        Component component = this.component;
+        if (component == null) {
+            synchronized (this) {
+                component = this.component;
+                if (component == null) {
+                    // need to convert back from legacy in order to handle links as mf-msg can't do that
+                    component = messageParser.parse(capabilities, capabilities.getChatMessageSerializer().deserialize(formatted));
+                    this.component = component;
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Returns the message component for MiniMessage line parts
+     *
+     * @return component
+     */
+    public Component getLineComponent() {
+        Component lineComponent = this.lineComponent;
+        if (lineComponent == null) {
+            synchronized (this) {
+                lineComponent = this.lineComponent;
+                if (lineComponent == null) {
+                    lineComponent = messageParser.parse(capabilities, Component.text(formatted));
+                    this.lineComponent = lineComponent;
+                }
+            }
+        }
+        return lineComponent;
+    }
+}
@@ -9,6 +9,21 @@ public class Format {
      */
     private List<FormatPart> formatParts;
 
+    /**
+     * If any of the format parts contain regular placeholders
+     */
+    private boolean placeholders;
+
+    /**
+     * If any of the format parts contain relational placeholders
+     */
+    private boolean relationalPlaceholders;
+
+    /**
+     * If any of the format parts, or their hover and click actions, contain placeholders of any kind
+     */
+    private boolean playerDependent;
+
     /**
      * Construct format
      *
@@ -16,6 +31,7 @@ public class Format {
      */
     public Format(List<FormatPart> formatParts) {
         this.formatParts = formatParts;
+        this.computeFlags();
     }
 
     /**
@@ -34,5 +50,61 @@ public class Format {
      */
     public void setFormatParts(List<FormatPart> formatParts) {
         this.formatParts = formatParts;
+        this.computeFlags();
+    }
+
+    /**
+     * Returns true if any of the format parts contain regular placeholders
+     *
+     * @return has placeholders
+     */
+    public boolean hasPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * Returns true if any of the format parts contain relational placeholders
+     *
+     * @return has relational placeholders
+     */
+    public boolean hasRelationalPlaceholders() {
+        return relationalPlaceholders;
+    }
+
+    /**
+     * Returns true if the rendered format depends on the players it is rendered for
+     * <p>
+     * If not, the format renders to the same component for everyone
+     *
+     * @return is player dependent
+     */
+    public boolean isPlayerDependent() {
+        return playerDependent;
+    }
+
+    /**
+     * Computes the placeholder flags from the compiled part templates
+     */
+    private void computeFlags() {
+        this.placeholders = false;
+        this.relationalPlaceholders = false;
+        this.playerDependent = false;
+
+        for (FormatPart formatPart : formatParts) {
+            FormatPartTemplate template = formatPart.getTemplate();
+            if (template != null) {
+                placeholders |= template.getPlaceholders().hasPlaceholders();
+                relationalPlaceholders |= template.getPlaceholders().hasRelationalPlaceholders();
+                playerDependent |= !template.isStatic();
+            } else {
+                playerDependent = true;
+            }
+
+            Extra extra = formatPart.getExtra();
+            if (extra != null) {
+                playerDependent |= extra.getHoverAction() != null && !extra.getHoverAction().isStatic();
+                playerDependent |= extra.getClickAction() != null && !extra.getClickAction().isStatic();
+            }
+        }
     }
 }
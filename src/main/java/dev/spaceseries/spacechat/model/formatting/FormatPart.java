@@ -19,6 +19,11 @@ public class FormatPart {
      */
     private Extra extra;
 
+    /**
+     * The compiled template of the part's text (or line)
+     */
+    private FormatPartTemplate template;
+
     /**
      * Construct format part
      *
@@ -91,4 +96,22 @@ public class FormatPart {
     public void setExtra(Extra extra) {
         this.extra = extra;
     }
+
+    /**
+     * Returns the compiled template
+     *
+     * @return template
+     */
+    public FormatPartTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Sets the compiled template
+     *
+     * @param template template
+     */
+    public void setTemplate(FormatPartTemplate template) {
+        this.template = template;
+    }
 }
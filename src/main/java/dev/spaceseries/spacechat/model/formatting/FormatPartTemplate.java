@@ -0,0 +1,155 @@
+package dev.spaceseries.spacechat.model.formatting;
+
+import dev.spaceseries.spacechat.external.papi.PlaceholderTemplate;
+import dev.spaceseries.spacechat.util.component.DeserializationCache;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.Style;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FormatPartTemplate {
+
+    /**
+     * The placeholder that gets replaced with the chat message
+     */
+    public static final String CHAT_MESSAGE_PLACEHOLDER = "<chat_message>";
+
+    /**
+     * The key of the component that marks where the chat message goes in a compiled part
+     */
+    private static final String CHAT_MESSAGE_SLOT_KEY = "spacechat.slot.chat_message";
+
+    /**
+     * The placeholders of the part's text (or line)
+     */
+    private final PlaceholderTemplate placeholders;
+
+    /**
+     * If the part is a MiniMessage line instead of legacy text
+     */
+    private final boolean miniMessage;
+
+    /**
+     * The pre-compiled component
+     * Only exists if the part doesn't contain any placeholders
+     */
+    private final Component staticComponent;
+
+    /**
+     * Construct format part template
+     *
+     * @param placeholders placeholders
+     * @param miniMessage  is mini message
+     */
+    public FormatPartTemplate(PlaceholderTemplate placeholders, boolean miniMessage) {
+        this.placeholders = placeholders;
+        this.miniMessage = miniMessage;
+        this.staticComponent = placeholders.isStatic() ? compile(placeholders.getSource()) : null;
+    }
+
+    /**
+     * Returns the placeholders
+     *
+     * @return placeholders
+     */
+    public PlaceholderTemplate getPlaceholders() {
+        return placeholders;
+    }
+
+    /**
+     * Returns true if the part is a MiniMessage line
+     *
+     * @return is mini message
+     */
+    public boolean isMiniMessage() {
+        return miniMessage;
+    }
+
+    /**
+     * Returns true if the part doesn't contain any placeholders
+     *
+     * @return is static
+     */
+    public boolean isStatic() {
+        return staticComponent != null;
+    }
+
+    /**
+     * Returns the pre-compiled component
+     * Null if the part contains placeholders
+     *
+     * @return static component
+     */
+    public Component getStaticComponent() {
+        return staticComponent;
+    }
+
+    /**
+     * Compiles text (with its placeholders already replaced) into a component
+     * <p>
+     * The chat message placeholder is turned into a slot that can be filled using {@link #fill(Component, Component)}
+     *
+     * @param text text
+     * @return component
+     */
+    public Component compile(String text) {
+        Component component = miniMessage ? DeserializationCache.miniMessage(text) : DeserializationCache.legacyAmpersand(text);
+
+        if (!text.contains(CHAT_MESSAGE_PLACEHOLDER)) {
+            return component;
+        }
+
+        return component.replaceText(b -> b.matchLiteral(CHAT_MESSAGE_PLACEHOLDER).replacement(Component.translatable(CHAT_MESSAGE_SLOT_KEY)));
+    }
+
+    /**
+     * Fills all chat message slots of a compiled component with the message
+     *
+     * @param component compiled component
+     * @param message   message
+     * @return filled component
+     */
+    public static Component fill(Component component, Component message) {
+        if (component instanceof TranslatableComponent && ((TranslatableComponent) component).key().equals(CHAT_MESSAGE_SLOT_KEY)) {
+            // the slot may have taken over the style of the text it replaced
+            Style style = component.style();
+            Component filled = style.isEmpty() ? message : message.style(message.style().merge(style, Style.Merge.Strategy.IF_ABSENT_ON_TARGET));
+            if (component.children().isEmpty()) {
+                return filled;
+            }
+
+            List<Component> filledChildren = new ArrayList<>(filled.children());
+            filledChildren.addAll(component.children());
+            return filled.children(filledChildren);
+        }
+
+        Component result = component;
+
+        HoverEvent<?> hoverEvent = component.hoverEvent();
+        if (hoverEvent != null && hoverEvent.action() == HoverEvent.Action.SHOW_TEXT) {
+            Component hoverText = (Component) hoverEvent.value();
+            Component filledHoverText = fill(hoverText, message);
+            if (filledHoverText != hoverText) {
+                result = result.hoverEvent(HoverEvent.showText(filledHoverText));
+            }
+        }
+
+        List<Component> children = component.children();
+        List<Component> filledChildren = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component filledChild = fill(child, message);
+            if (filledChild != child) {
+                if (filledChildren == null) {
+                    filledChildren = new ArrayList<>(children);
+                }
+                filledChildren.set(i, filledChild);
+            }
+        }
+
+        return filledChildren == null ? result : result.children(filledChildren);
+    }
+}
@@ -1,7 +1,7 @@
 package dev.spaceseries.spacechat.model.formatting.action;
 
-import dev.spaceseries.spacechat.replacer.AmpersandReplacer;
-import dev.spaceseries.spacechat.replacer.SectionReplacer;
+import dev.spaceseries.spacechat.external.papi.PlaceholderTemplate;
+import dev.spaceseries.spacechat.util.color.ColorCodec;
 import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.event.ClickEvent;
 import org.bukkit.entity.Player;
@@ -9,25 +9,36 @@ import org.bukkit.entity.Player;
 public class ClickAction {
 
     /**
-     * Ampersand replacer
+     * The type of action for the click action
      */
-    private static final AmpersandReplacer AMPERSAND_REPLACER = new AmpersandReplacer();
+    private ClickActionType clickActionType;
 
     /**
-     * Section replacer
+     * The value applied to the click action type when the
+     * event is fired
      */
-    private static final SectionReplacer SECTION_REPLACER = new SectionReplacer();
+    private String value;
 
     /**
-     * The type of action for the click action
+     * The compiled placeholders of the value
      */
-    private ClickActionType clickActionType;
+    private PlaceholderTemplate template;
 
     /**
-     * The value applied to the click action type when the
-     * event is fired
+     * The compiled placeholders of the value, with ampersands converted to section signs
      */
-    private String value;
+    private PlaceholderTemplate relationalTemplate;
+
+    /**
+     * The action of the click event
+     */
+    private ClickEvent.Action action;
+
+    /**
+     * The pre-built click event
+     * Only exists if the value doesn't contain any placeholders
+     */
+    private ClickEvent clickEvent;
 
     /**
      * Construct click action
@@ -36,8 +47,8 @@ public class ClickAction {
      * @param value           value
      */
     public ClickAction(ClickActionType clickActionType, String value) {
-        this.clickActionType = clickActionType;
-        this.value = value;
+        this.setClickActionType(clickActionType);
+        this.setValue(value);
     }
 
     /**
@@ -53,11 +64,21 @@ public class ClickAction {
      * @return The click event
      */
     public ClickEvent toClickEvent(Player player) {
-        // parse action
-        ClickEvent.Action action = ClickEvent.Action.valueOf(clickActionType.toString().toUpperCase());
+        // use the pre-built event if there is nothing to replace
+        if (clickEvent != null) {
+            return clickEvent;
+        }
+        return toClickEvent(resolve(player));
+    }
 
-        // build & return
-        return ClickEvent.clickEvent(action, PlaceholderAPI.setPlaceholders(player, value));
+    /**
+     * Resolves the placeholders of the value
+     *
+     * @param player The player
+     * @return The value
+     */
+    public String resolve(Player player) {
+        return template.resolve(player);
     }
 
     /**
@@ -70,15 +91,55 @@ public class ClickAction {
      * @return The click event
      */
     public ClickEvent toClickEventRelational(Player player, Player player2) {
-        // parse action
-        ClickEvent.Action action = ClickEvent.Action.valueOf(clickActionType.toString().toUpperCase());
+        return toClickEvent(resolveRelational(player, player2, resolveRelationalPartially(player)));
+    }
 
-        String text = SECTION_REPLACER.apply(PlaceholderAPI.setPlaceholders(player, AMPERSAND_REPLACER.apply(value, player)), player);
+    /**
+     * Returns true if the value contains relational placeholders
+     *
+     * @return has relational placeholders
+     */
+    public boolean hasRelationalPlaceholders() {
+        return relationalTemplate.hasRelationalPlaceholders();
+    }
+
+    /**
+     * Resolves the regular placeholders of the value, keeping the relational ones
+     * <p>
+     * The result only depends on the first player, so it can be shared by every second player
+     *
+     * @param player The player
+     * @return The partially resolved value
+     */
+    public String resolveRelationalPartially(Player player) {
+        return relationalTemplate.resolveSectionToAmpersand(player);
+    }
+
+    /**
+     * Resolves the relational placeholders of a partially resolved value
+     *
+     * @param player    The player
+     * @param player2   The second player
+     * @param partially The value returned by {@link #resolveRelationalPartially(Player)}
+     * @return The value
+     */
+    public String resolveRelational(Player player, Player player2, String partially) {
         // set relational placeholders
-        text = PlaceholderAPI.setRelationalPlaceholders(player, player2, text);
+        if (!relationalTemplate.hasRelationalPlaceholders()) {
+            return partially;
+        }
+        return PlaceholderAPI.setRelationalPlaceholders(player, player2, partially);
+    }
 
+    /**
+     * Converts a fully resolved value to a click event
+     *
+     * @param value The value
+     * @return The click event
+     */
+    public ClickEvent toClickEvent(String value) {
         // build & return
-        return ClickEvent.clickEvent(action, text);
+        return ClickEvent.clickEvent(action, value);
     }
 
     /**
@@ -97,6 +158,10 @@ public class ClickAction {
      */
     public void setClickActionType(ClickActionType clickActionType) {
         this.clickActionType = clickActionType;
+
+        // parse action once
+        this.action = clickActionType != null ? ClickEvent.Action.valueOf(clickActionType.name()) : null;
+        this.prebuild();
     }
 
     /**
@@ -115,5 +180,37 @@ public class ClickAction {
      */
     public void setValue(String value) {
         this.value = value;
+
+        // compile the placeholders once, so the value doesn't have to be scanned for every message
+        String source = value != null ? value : "";
+        this.template = PlaceholderTemplate.compile(source);
+        this.relationalTemplate = PlaceholderTemplate.compile(ColorCodec.ampersandToSection(source));
+        this.prebuild();
+    }
+
+    /**
+     * Pre-builds the click event if the value doesn't contain any placeholders
+     */
+    private void prebuild() {
+        this.clickEvent = action != null && template != null && template.isStatic() ? ClickEvent.clickEvent(action, template.getSource()) : null;
+    }
+
+    /**
+     * Returns true if the value doesn't contain any placeholders
+     *
+     * @return is static
+     */
+    public boolean isStatic() {
+        return clickEvent != null;
+    }
+
+    /**
+     * Returns the pre-built click event
+     * Null if the value contains placeholders
+     *
+     * @return click event
+     */
+    public ClickEvent getClickEvent() {
+        return clickEvent;
     }
 }
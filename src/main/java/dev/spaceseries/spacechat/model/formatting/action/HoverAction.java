@@ -1,12 +1,12 @@
 package dev.spaceseries.spacechat.model.formatting.action;
 
 import com.google.common.base.Joiner;
-import dev.spaceseries.spacechat.replacer.AmpersandReplacer;
-import dev.spaceseries.spacechat.replacer.SectionReplacer;
+import dev.spaceseries.spacechat.external.papi.PlaceholderTemplate;
+import dev.spaceseries.spacechat.util.color.ColorCodec;
+import dev.spaceseries.spacechat.util.component.DeserializationCache;
 import me.clip.placeholderapi.PlaceholderAPI;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.HoverEvent;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.entity.Player;
 
 import java.util.List;
@@ -14,20 +14,26 @@ import java.util.List;
 public class HoverAction {
 
     /**
-     * Ampersand replacer
+     * The list of lines in the
+     * hover action
      */
-    private static final AmpersandReplacer AMPERSAND_REPLACER = new AmpersandReplacer();
+    private List<String> lines;
 
     /**
-     * Section replacer
+     * The compiled placeholders of the joined lines
      */
-    private static final SectionReplacer SECTION_REPLACER = new SectionReplacer();
+    private PlaceholderTemplate template;
 
     /**
-     * The list of lines in the
-     * hover action
+     * The compiled placeholders of the joined lines, with ampersands converted to section signs
      */
-    private List<String> lines;
+    private PlaceholderTemplate relationalTemplate;
+
+    /**
+     * The pre-built hover event
+     * Only exists if the lines don't contain any placeholders
+     */
+    private HoverEvent<Component> hoverEvent;
 
     /**
      * Construct hover action
@@ -35,7 +41,7 @@ public class HoverAction {
      * @param lines lines
      */
     public HoverAction(List<String> lines) {
-        this.lines = lines;
+        this.setLines(lines);
     }
 
     /**
@@ -51,13 +57,28 @@ public class HoverAction {
      * @return The hover event
      */
     public HoverEvent<Component> toHoverEvent(Player player) {
+        // use the pre-built event if there is nothing to replace
+        if (hoverEvent != null) {
+            return hoverEvent;
+        }
+
         // parse action
         HoverEvent.Action<Component> action = HoverEvent.Action.SHOW_TEXT;
 
-        String line = PlaceholderAPI.setPlaceholders(player, Joiner.on("\n").join(lines));
+        String line = resolve(player);
 
         // build & return
-        return HoverEvent.hoverEvent(action, LegacyComponentSerializer.legacyAmpersand().deserialize(line));
+        return HoverEvent.hoverEvent(action, DeserializationCache.legacyAmpersand(line));
+    }
+
+    /**
+     * Resolves the placeholders of the lines
+     *
+     * @param player The player
+     * @return The text
+     */
+    public String resolve(Player player) {
+        return template.resolve(player);
     }
 
     /**
@@ -70,17 +91,74 @@ public class HoverAction {
      * @return The hover event
      */
     public HoverEvent<Component> toHoverEventRelational(Player player, Player player2) {
-        // parse action
-        HoverEvent.Action<Component> action = HoverEvent.Action.SHOW_TEXT;
+        return toHoverEvent(resolveRelational(player, player2, resolveRelationalPartially(player)));
+    }
 
-        String line = Joiner.on("\n").join(lines);
+    /**
+     * Returns true if the lines don't contain any placeholders
+     *
+     * @return is static
+     */
+    public boolean isStatic() {
+        return hoverEvent != null;
+    }
 
-        String text = SECTION_REPLACER.apply(PlaceholderAPI.setPlaceholders(player, AMPERSAND_REPLACER.apply(line, player)), player);
+    /**
+     * Returns the pre-built hover event
+     * Null if the lines contain placeholders
+     *
+     * @return hover event
+     */
+    public HoverEvent<Component> getHoverEvent() {
+        return hoverEvent;
+    }
+
+    /**
+     * Returns true if the lines contain relational placeholders
+     *
+     * @return has relational placeholders
+     */
+    public boolean hasRelationalPlaceholders() {
+        return relationalTemplate.hasRelationalPlaceholders();
+    }
+
+    /**
+     * Resolves the regular placeholders of the lines, keeping the relational ones
+     * <p>
+     * The result only depends on the first player, so it can be shared by every second player
+     *
+     * @param player The player
+     * @return The partially resolved text
+     */
+    public String resolveRelationalPartially(Player player) {
+        return relationalTemplate.resolveSectionToAmpersand(player);
+    }
+
+    /**
+     * Resolves the relational placeholders of partially resolved text
+     *
+     * @param player    The player
+     * @param player2   The second player
+     * @param partially The text returned by {@link #resolveRelationalPartially(Player)}
+     * @return The text
+     */
+    public String resolveRelational(Player player, Player player2, String partially) {
         // set relational placeholders
-        text = SECTION_REPLACER.apply(PlaceholderAPI.setRelationalPlaceholders(player, player2, text), player);
+        if (!relationalTemplate.hasRelationalPlaceholders()) {
+            return partially;
+        }
+        return ColorCodec.sectionToAmpersand(PlaceholderAPI.setRelationalPlaceholders(player, player2, partially));
+    }
 
+    /**
+     * Converts fully resolved text to a hover event
+     *
+     * @param text The text
+     * @return The hover event
+     */
+    public HoverEvent<Component> toHoverEvent(String text) {
         // build & return
-        return HoverEvent.hoverEvent(action, LegacyComponentSerializer.legacyAmpersand().deserialize(text));
+        return HoverEvent.hoverEvent(HoverEvent.Action.SHOW_TEXT, DeserializationCache.legacyAmpersand(text));
     }
 
     /**
@@ -99,5 +177,13 @@ public class HoverAction {
      */
     public void setLines(List<String> lines) {
         this.lines = lines;
+
+        // compile the placeholders once, so the lines don't have to be scanned for every message
+        String line = Joiner.on("\n").join(lines);
+        this.template = PlaceholderTemplate.compile(line);
+        this.relationalTemplate = PlaceholderTemplate.compile(ColorCodec.ampersandToSection(line));
+
+        // nothing to replace, so every message can share the same event
+        this.hoverEvent = template.isStatic() ? HoverEvent.showText(DeserializationCache.legacyAmpersand(line)) : null;
     }
 }
@@ -0,0 +1,212 @@
+package dev.spaceseries.spacechat.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A trie over a fixed set of keys, stored in flat arrays
+ * <p>
+ * The children of a state are a sorted slice of the child arrays, so following a character is a binary search over
+ * the children of a single state and doesn't allocate. States are numbered breadth first, the root is state 0.
+ */
+public final class FlatTrie {
+
+    /**
+     * The root state
+     */
+    public static final int ROOT = 0;
+
+    /**
+     * No state (or no key)
+     */
+    public static final int NONE = -1;
+
+    /**
+     * The start of the children of every state in the child arrays (with one extra entry for the end of the last state)
+     */
+    private final int[] childStart;
+
+    /**
+     * The characters of the children, sorted per state
+     */
+    private final char[] childChars;
+
+    /**
+     * The target states of the children
+     */
+    private final int[] childTargets;
+
+    /**
+     * The index of the key that ends at every state, {@link #NONE} if none ends there
+     */
+    private final int[] keyIndex;
+
+    private FlatTrie(int[] childStart, char[] childChars, int[] childTargets, int[] keyIndex) {
+        this.childStart = childStart;
+        this.childChars = childChars;
+        this.childTargets = childTargets;
+        this.keyIndex = keyIndex;
+    }
+
+    /**
+     * Compiles keys into a trie
+     * <p>
+     * Empty keys are skipped, if a key occurs more than once the last index is used
+     *
+     * @param keys keys
+     * @return trie
+     */
+    public static FlatTrie compile(List<String> keys) {
+        // build a temporary trie
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        indexes.add(NONE);
+
+        for (int k = 0; k < keys.size(); k++) {
+            String key = keys.get(k);
+            if (key.isEmpty()) {
+                continue;
+            }
+
+            int state = ROOT;
+            for (int i = 0; i < key.length(); i++) {
+                Integer next = trie.get(state).get(key.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    indexes.add(NONE);
+                    trie.get(state).put(key.charAt(i), next);
+                }
+                state = next;
+            }
+            indexes.set(state, k);
+        }
+
+        // renumber the states breadth first and flatten the children
+        int states = trie.size();
+        int[] order = new int[states];
+        int[] renumbered = new int[states];
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int state = order[head++];
+            for (int child : trie.get(state).values()) {
+                renumbered[child] = tail;
+                order[tail++] = child;
+            }
+        }
+
+        int[] childStart = new int[states + 1];
+        char[] childChars = new char[states - 1];
+        int[] childTargets = new int[states - 1];
+        int[] keyIndex = new int[states];
+        int edge = 0;
+        for (int i = 0; i < states; i++) {
+            childStart[i] = edge;
+            keyIndex[i] = indexes.get(order[i]);
+            for (Map.Entry<Character, Integer> child : trie.get(order[i]).entrySet()) {
+                childChars[edge] = child.getKey();
+                childTargets[edge] = renumbered[child.getValue()];
+                edge++;
+            }
+        }
+        childStart[states] = edge;
+
+        return new FlatTrie(childStart, childChars, childTargets, keyIndex);
+    }
+
+    /**
+     * Returns the amount of states
+     *
+     * @return states
+     */
+    public int states() {
+        return keyIndex.length;
+    }
+
+    /**
+     * Returns true if the trie doesn't contain any keys
+     *
+     * @return is empty
+     */
+    public boolean isEmpty() {
+        return childStart[1] == 0;
+    }
+
+    /**
+     * Returns the index of the key that ends at a state
+     *
+     * @param state state
+     * @return key index, {@link #NONE} if no key ends there
+     */
+    public int keyIndex(int state) {
+        return keyIndex[state];
+    }
+
+    /**
+     * Returns the first edge of the children of a state
+     *
+     * @param state state
+     * @return first edge (inclusive)
+     */
+    public int firstEdge(int state) {
+        return childStart[state];
+    }
+
+    /**
+     * Returns the end of the edges of the children of a state
+     *
+     * @param state state
+     * @return last edge (exclusive)
+     */
+    public int endEdge(int state) {
+        return childStart[state + 1];
+    }
+
+    /**
+     * Returns the character of an edge
+     *
+     * @param edge edge
+     * @return character
+     */
+    public char edgeChar(int edge) {
+        return childChars[edge];
+    }
+
+    /**
+     * Returns the target state of an edge
+     *
+     * @param edge edge
+     * @return target state
+     */
+    public int edgeTarget(int edge) {
+        return childTargets[edge];
+    }
+
+    /**
+     * Finds the child of a state
+     *
+     * @param state state
+     * @param c     character
+     * @return child, {@link #NONE} if there is none
+     */
+    public int child(int state, char c) {
+        int low = childStart[state];
+        int high = childStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = childChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return childTargets[mid];
+            }
+        }
+        return NONE;
+    }
+}
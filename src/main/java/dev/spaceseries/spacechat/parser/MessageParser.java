@@ -2,27 +2,115 @@ package dev.spaceseries.spacechat.parser;
 
 import dev.spaceseries.spacechat.SpaceChatPlugin;
 import dev.spaceseries.spacechat.api.wrapper.Pair;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.parser.emoji.EmojiParser;
+import dev.spaceseries.spacechat.parser.filter.ChatFilterParser;
 import dev.spaceseries.spacechat.parser.itemchat.ItemChatParser;
+import dev.spaceseries.spacechat.parser.mention.MentionParser;
 import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class MessageParser {
 
     /**
-     * Available parsers
+     * Plugin
      */
-    private final List<Parser<Pair<Player, Component>, Component>> parsers;
+    private final SpaceChatPlugin plugin;
+
+    /**
+     * Available parsers, the built-in ones first
+     */
+    private volatile List<Parser<Pair<SenderCapabilities, Component>, Component>> parsers = new CopyOnWriteArrayList<>();
+
+    /**
+     * The built-in parsers
+     */
+    private List<Parser<Pair<SenderCapabilities, Component>, Component>> builtInParsers = Collections.emptyList();
 
     /**
      * Construct message parser
      */
     public MessageParser(SpaceChatPlugin plugin) {
-        this.parsers = Collections.singletonList(
-                new ItemChatParser(plugin)
-        );
+        this.plugin = plugin;
+        this.reload();
+    }
+
+    /**
+     * (Re)creates the built-in parsers, keeping the ones that were registered by other plugins
+     */
+    public synchronized void reload() {
+        List<Parser<Pair<SenderCapabilities, Component>, Component>> builtIn = new ArrayList<>();
+        // filter before item chat, so item names are never filtered
+        builtIn.add(new ChatFilterParser(plugin));
+        builtIn.add(new MentionParser(plugin));
+        builtIn.add(new EmojiParser(plugin));
+        builtIn.add(new ItemChatParser(plugin));
+
+        // swap in a single step, so messages that are being parsed right now see either the old or the new parsers
+        List<Parser<Pair<SenderCapabilities, Component>, Component>> all = new ArrayList<>(builtIn);
+        for (Parser<Pair<SenderCapabilities, Component>, Component> parser : parsers) {
+            if (!builtInParsers.contains(parser)) {
+                all.add(parser);
+            }
+        }
+
+        parsers = new CopyOnWriteArrayList<>(all);
+        builtInParsers = builtIn;
+    }
+
+    /**
+     * Registers a parser, it will run after all parsers that are already registered
+     *
+     * @param parser parser
+     */
+    public synchronized void register(Parser<Pair<SenderCapabilities, Component>, Component> parser) {
+        parsers.add(parser);
+    }
+
+    /**
+     * Unregisters a parser
+     *
+     * @param parser parser
+     */
+    public synchronized void unregister(Parser<Pair<SenderCapabilities, Component>, Component> parser) {
+        parsers.remove(parser);
+    }
+
+    /**
+     * Returns all registered parsers
+     *
+     * @return parsers
+     */
+    public List<Parser<Pair<SenderCapabilities, Component>, Component>> getParsers() {
+        return Collections.unmodifiableList(parsers);
+    }
+
+    /**
+     * Returns true if parsing the message always gives the same result for the same sender capabilities
+     *
+     * @param capabilities the capabilities of the player
+     * @param raw          the raw message
+     * @return is deterministic
+     */
+    public boolean isDeterministic(SenderCapabilities capabilities, String raw) {
+        Pair<SenderCapabilities, Component> pair = null;
+        for (Parser<Pair<SenderCapabilities, Component>, Component> parser : parsers) {
+            if (parser.isDeterministic()) {
+                continue;
+            }
+            if (pair == null) {
+                pair = new Pair<>(capabilities, Component.text(raw));
+            }
+            if (parser.accepts(pair)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -33,9 +121,24 @@ public class MessageParser {
      * @return component
      */
     public Component parse(Player player, Component input) {
+        return parse(SenderCapabilities.of(player, plugin.getSpaceChatConfig().getAdapter()), input);
+    }
+
+    /**
+     * Parse
+     *
+     * @param capabilities the capabilities of the player
+     * @param input        message input
+     * @return component
+     */
+    public Component parse(SenderCapabilities capabilities, Component input) {
         // loop through parsers
-        for (Parser<Pair<Player, Component>, Component> parser : parsers) {
-            input = parser.parse(new Pair<>(player, input));
+        for (Parser<Pair<SenderCapabilities, Component>, Component> parser : parsers) {
+            Pair<SenderCapabilities, Component> pair = new Pair<>(capabilities, input);
+            // skip parsers that have nothing to do
+            if (parser.accepts(pair)) {
+                input = parser.parse(pair);
+            }
         }
         return input;
     }
@@ -10,6 +10,30 @@ public abstract class Parser<K, V> {
         this.plugin = plugin;
     }
 
+    /**
+     * Returns true if the parser has anything to do with the input
+     * <p>
+     * This is checked before every {@link #parse(Object)}, so it should be cheap
+     *
+     * @param k k
+     * @return accepts
+     */
+    public boolean accepts(K k) {
+        return true;
+    }
+
+    /**
+     * Returns true if the parser always gives the same result for the same sender capabilities and message
+     * <p>
+     * Rendered chat lines are only reused if every parser that accepts the message is deterministic. Parsers have to
+     * opt in, as the rendered line cache doesn't know which player state a parser depends on
+     *
+     * @return is deterministic
+     */
+    public boolean isDeterministic() {
+        return false;
+    }
+
     /**
      * Parse
      *
@@ -0,0 +1,134 @@
+package dev.spaceseries.spacechat.parser.emoji;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.wrapper.Pair;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.parser.Parser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EmojiParser extends Parser<Pair<SenderCapabilities, Component>, Component> {
+
+    /**
+     * Emoji replacer
+     */
+    private final EmojiReplacer replacer;
+
+    /**
+     * Emoji parser
+     *
+     * @param plugin plugin
+     */
+    public EmojiParser(SpaceChatPlugin plugin) {
+        super(plugin);
+        this.replacer = plugin.getEmojiReplacer();
+    }
+
+    /**
+     * Only accepts messages that contain any shortcode
+     *
+     * @param capabilitiesComponentPair pair
+     * @return accepts
+     */
+    @Override
+    public boolean accepts(Pair<SenderCapabilities, Component> capabilitiesComponentPair) {
+        return replacer.isEnabled() && containsShortcode(capabilitiesComponentPair.getRight());
+    }
+
+    /**
+     * The emojis only depend on the message
+     *
+     * @return true
+     */
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    /**
+     * Parse message to component
+     *
+     * @param capabilitiesComponentPair pair
+     * @return component
+     */
+    @Override
+    public Component parse(Pair<SenderCapabilities, Component> capabilitiesComponentPair) {
+        Component message = capabilitiesComponentPair.getRight();
+
+        // if not enabled, return
+        if (!replacer.isEnabled()) {
+            return message;
+        }
+
+        return replace(message);
+    }
+
+    /**
+     * Returns true if any text of the message contains a shortcode
+     *
+     * @param message message
+     * @return contains shortcode
+     */
+    private boolean containsShortcode(Component message) {
+        if (message instanceof TextComponent && replacer.contains(((TextComponent) message).content())) {
+            return true;
+        }
+
+        for (Component child : message.children()) {
+            if (containsShortcode(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the shortcodes in all text of the message
+     * <p>
+     * Only the components that contain a shortcode (and their parents) are rebuilt
+     *
+     * @param message message
+     * @return the replaced message, or the same instance if it doesn't contain any shortcodes
+     */
+    private Component replace(Component message) {
+        Component replaced = message;
+        List<Component> leadingChildren = null;
+
+        if (message instanceof TextComponent) {
+            List<Object> segments = replacer.split(((TextComponent) message).content());
+            if (segments != null) {
+                // the first literal stays the content, the rest comes before the existing children
+                String leading = segments.get(0) instanceof String ? (String) segments.get(0) : "";
+                replaced = ((TextComponent) message).content(leading);
+
+                leadingChildren = new ArrayList<>(segments.size() + message.children().size());
+                for (int i = leading.isEmpty() ? 0 : 1; i < segments.size(); i++) {
+                    Object segment = segments.get(i);
+                    leadingChildren.add(segment instanceof String ? Component.text((String) segment) : (Component) segment);
+                }
+            }
+        }
+
+        List<Component> children = message.children();
+        List<Component> replacedChildren = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component replacedChild = replace(child);
+            if (replacedChild != child) {
+                if (replacedChildren == null) {
+                    replacedChildren = new ArrayList<>(children);
+                }
+                replacedChildren.set(i, replacedChild);
+            }
+        }
+
+        if (leadingChildren != null) {
+            leadingChildren.addAll(replacedChildren != null ? replacedChildren : children);
+            return replaced.children(leadingChildren);
+        }
+        return replacedChildren != null ? replaced.children(replacedChildren) : replaced;
+    }
+}
@@ -0,0 +1,158 @@
+package dev.spaceseries.spacechat.parser.emoji;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.parser.FlatTrie;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces :shortcodes: with their emoji
+ * <p>
+ * The shortcodes of emojis.yml are compiled into a {@link FlatTrie} when the replacer is loaded. Text is scanned once
+ * from left to right, and at every colon the trie is followed for at most the length of the longest shortcode, so the
+ * cost of a message doesn't depend on the amount of shortcodes.
+ */
+public class EmojiReplacer {
+
+    /**
+     * The character shortcodes start and end with
+     */
+    private static final char COLON = ':';
+
+    /**
+     * No state (or no emoji)
+     */
+    private static final int NONE = FlatTrie.NONE;
+
+    /**
+     * If emojis are enabled
+     */
+    private final boolean enabled;
+
+    /**
+     * The trie of the shortcodes, without their colons
+     */
+    private final FlatTrie trie;
+
+    /**
+     * The emojis, by index
+     */
+    private final Component[] emojis;
+
+    /**
+     * Construct emoji replacer
+     *
+     * @param plugin plugin
+     */
+    public EmojiReplacer(SpaceChatPlugin plugin) {
+        ConfigurationAdapter configuration = plugin.getEmojisConfig().getAdapter();
+        Map<String, String> shortcodes = configuration.getStringMap("emojis");
+
+        List<String> keys = new ArrayList<>();
+        List<Component> emojis = new ArrayList<>();
+        for (Map.Entry<String, String> entry : shortcodes.entrySet()) {
+            String shortcode = entry.getKey();
+            if (shortcode.isEmpty() || shortcode.indexOf(COLON) != -1 || entry.getValue() == null) {
+                continue;
+            }
+
+            // the key index is the emoji index
+            keys.add(shortcode);
+            emojis.add(LegacyComponentSerializer.legacyAmpersand().deserialize(entry.getValue()));
+        }
+
+        this.trie = FlatTrie.compile(keys);
+        this.emojis = emojis.toArray(new Component[0]);
+        this.enabled = configuration.getBoolean("enabled", false) && this.emojis.length > 0;
+    }
+
+    /**
+     * Returns true if emojis are enabled and there are any shortcodes
+     *
+     * @return enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Finds the shortcode that starts at an index
+     *
+     * @param text  text
+     * @param start index of the opening colon
+     * @return the index of the emoji, {@link #NONE} if there is no shortcode
+     */
+    private int match(String text, int start) {
+        int state = FlatTrie.ROOT;
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == COLON) {
+                return trie.keyIndex(state);
+            }
+
+            state = trie.child(state, c);
+            if (state == NONE) {
+                return NONE;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns true if the text contains any shortcode
+     *
+     * @param text text
+     * @return contains shortcode
+     */
+    public boolean contains(String text) {
+        for (int i = text.indexOf(COLON); i != -1; i = text.indexOf(COLON, i + 1)) {
+            if (match(text, i) != NONE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits text into its literals and emojis
+     *
+     * @param text text
+     * @return the literals (strings) and emojis (components) in order, or null if the text doesn't contain any shortcodes
+     */
+    public List<Object> split(String text) {
+        List<Object> segments = null;
+        int literalStart = 0;
+
+        int i = text.indexOf(COLON);
+        while (i != -1) {
+            int emoji = match(text, i);
+            if (emoji == NONE) {
+                // not a shortcode, the next colon may start one
+                i = text.indexOf(COLON, i + 1);
+                continue;
+            }
+
+            if (segments == null) {
+                segments = new ArrayList<>();
+            }
+            if (i > literalStart) {
+                segments.add(text.substring(literalStart, i));
+            }
+            segments.add(emojis[emoji]);
+
+            // continue after the closing colon
+            literalStart = text.indexOf(COLON, i + 1) + 1;
+            i = text.indexOf(COLON, literalStart);
+        }
+
+        if (segments != null && literalStart < text.length()) {
+            segments.add(text.substring(literalStart));
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,150 @@
+package dev.spaceseries.spacechat.parser.filter;
+
+import dev.spaceseries.spacechat.parser.FlatTrie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An Aho-Corasick automaton over a fixed set of patterns
+ * <p>
+ * The patterns are stored in a {@link FlatTrie}, with the failure and output links in flat arrays next to it.
+ * Matching text is a single pass that doesn't allocate, its cost doesn't grow with the amount of patterns.
+ */
+final class AhoCorasick {
+
+    /**
+     * The root state
+     */
+    static final int ROOT = FlatTrie.ROOT;
+
+    /**
+     * No state
+     */
+    static final int NONE = FlatTrie.NONE;
+
+    /**
+     * The trie of the patterns
+     */
+    private final FlatTrie trie;
+
+    /**
+     * The failure link of every state (the longest proper suffix that is also in the trie)
+     */
+    private final int[] failure;
+
+    /**
+     * The closest state on the failure chain that ends a pattern, {@link #NONE} if there is none
+     */
+    private final int[] outputLink;
+
+    /**
+     * The length of the pattern that ends at every state, 0 if none ends there
+     */
+    private final int[] patternLength;
+
+    private AhoCorasick(FlatTrie trie, int[] failure, int[] outputLink, int[] patternLength) {
+        this.trie = trie;
+        this.failure = failure;
+        this.outputLink = outputLink;
+        this.patternLength = patternLength;
+    }
+
+    /**
+     * Compiles patterns into an automaton
+     * <p>
+     * The patterns have to be normalized the same way the matched text is
+     *
+     * @param patterns patterns
+     * @return automaton
+     */
+    static AhoCorasick compile(Collection<String> patterns) {
+        List<String> keys = new ArrayList<>(patterns);
+        FlatTrie trie = FlatTrie.compile(keys);
+
+        int states = trie.states();
+        int[] patternLength = new int[states];
+        for (int state = 0; state < states; state++) {
+            int key = trie.keyIndex(state);
+            patternLength[state] = key != NONE ? keys.get(key).length() : 0;
+        }
+
+        // compute the failure and output links, in breadth first order (which is the state order of the trie)
+        int[] failure = new int[states];
+        int[] outputLink = new int[states];
+        Arrays.fill(outputLink, NONE);
+
+        AhoCorasick automaton = new AhoCorasick(trie, failure, outputLink, patternLength);
+        for (int state = 0; state < states; state++) {
+            for (int e = trie.firstEdge(state); e < trie.endEdge(state); e++) {
+                int child = trie.edgeTarget(e);
+                int fail = state == ROOT ? ROOT : automaton.next(failure[state], trie.edgeChar(e));
+
+                failure[child] = fail;
+                outputLink[child] = patternLength[fail] > 0 ? fail : outputLink[fail];
+            }
+        }
+        return automaton;
+    }
+
+    /**
+     * Returns true if the automaton doesn't contain any patterns
+     *
+     * @return is empty
+     */
+    boolean isEmpty() {
+        return trie.isEmpty();
+    }
+
+    /**
+     * Moves to the next state
+     *
+     * @param state current state
+     * @param c     (normalized) character
+     * @return next state
+     */
+    int next(int state, char c) {
+        while (true) {
+            int child = trie.child(state, c);
+            if (child != NONE) {
+                return child;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    /**
+     * Returns the first state that ends a pattern, starting at a state and following its output links
+     *
+     * @param state state
+     * @return state, {@link #NONE} if no pattern ends here
+     */
+    int firstOutput(int state) {
+        return patternLength[state] > 0 ? state : outputLink[state];
+    }
+
+    /**
+     * Returns the next state that ends a pattern
+     *
+     * @param output state returned by {@link #firstOutput(int)} or this method
+     * @return state, {@link #NONE} if there are no more
+     */
+    int nextOutput(int output) {
+        return outputLink[output];
+    }
+
+    /**
+     * Returns the length of the pattern that ends at a state
+     *
+     * @param output state that ends a pattern
+     * @return length
+     */
+    int patternLength(int output) {
+        return patternLength[output];
+    }
+}
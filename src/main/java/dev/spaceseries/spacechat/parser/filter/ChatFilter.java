@@ -0,0 +1,437 @@
+package dev.spaceseries.spacechat.parser.filter;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Filters the words of a word list from chat messages
+ * <p>
+ * The word list is compiled into a single {@link AhoCorasick} automaton when the filter is loaded, so text is
+ * matched in one pass, no matter how many words there are. Matching is case-insensitive and optionally ignores
+ * leetspeak (e.g. "h4ck3r" matches "hacker").
+ */
+public class ChatFilter {
+
+    /**
+     * The character that leetspeak characters stand for, by their (ascii) character
+     */
+    private static final char[] LEETSPEAK = new char[128];
+
+    static {
+        LEETSPEAK['0'] = 'o';
+        LEETSPEAK['1'] = 'i';
+        LEETSPEAK['3'] = 'e';
+        LEETSPEAK['4'] = 'a';
+        LEETSPEAK['5'] = 's';
+        LEETSPEAK['7'] = 't';
+        LEETSPEAK['@'] = 'a';
+        LEETSPEAK['$'] = 's';
+        LEETSPEAK['!'] = 'i';
+    }
+
+    /**
+     * Stands in for components without text, it's never part of a word
+     */
+    private static final char BOUNDARY = '\n';
+
+    /**
+     * Returned by {@link #matches(Component, Component, long)} once a word is found, never a valid cursor
+     */
+    private static final long FOUND = -1;
+
+    /**
+     * What happens to matched words
+     */
+    public enum Mode {
+        /**
+         * Matched words are replaced with the replacement character
+         */
+        REPLACE,
+        /**
+         * Messages are left as they are, but logged to the console
+         */
+        FLAG
+    }
+
+    /**
+     * If the filter is enabled
+     */
+    private final boolean enabled;
+
+    /**
+     * Mode
+     */
+    private final Mode mode;
+
+    /**
+     * The character matched words are replaced with
+     */
+    private final char replacement;
+
+    /**
+     * If only whole words are matched (e.g. "ass" doesn't match "class")
+     */
+    private final boolean wholeWords;
+
+    /**
+     * If leetspeak characters are normalized
+     */
+    private final boolean leetspeak;
+
+    /**
+     * The compiled word list
+     */
+    private final AhoCorasick automaton;
+
+    /**
+     * Construct chat filter
+     *
+     * @param plugin plugin
+     */
+    public ChatFilter(SpaceChatPlugin plugin) {
+        ConfigurationAdapter configuration = plugin.getSpaceChatConfig().getAdapter();
+
+        this.mode = mode(plugin, SpaceChatConfigKeys.CHAT_FILTER_MODE.get(configuration));
+        String replacement = SpaceChatConfigKeys.CHAT_FILTER_REPLACEMENT.get(configuration);
+        this.replacement = replacement == null || replacement.isEmpty() ? '*' : replacement.charAt(0);
+        this.wholeWords = SpaceChatConfigKeys.CHAT_FILTER_WHOLE_WORDS.get(configuration);
+        this.leetspeak = SpaceChatConfigKeys.CHAT_FILTER_LEETSPEAK.get(configuration);
+
+        if (!SpaceChatConfigKeys.CHAT_FILTER_ENABLED.get(configuration)) {
+            this.enabled = false;
+            this.automaton = AhoCorasick.compile(new LinkedHashSet<>());
+            return;
+        }
+
+        // normalize the words the same way messages are
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : SpaceChatConfigKeys.CHAT_FILTER_WORDS.get(configuration)) {
+            addWord(words, word);
+        }
+
+        String fileName = SpaceChatConfigKeys.CHAT_FILTER_FILE.get(configuration);
+        if (fileName != null && !fileName.isEmpty()) {
+            Path file = plugin.getDataFolder().toPath().resolve(fileName);
+            if (Files.exists(file)) {
+                try {
+                    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                        // skip comments
+                        if (!line.trim().startsWith("#")) {
+                            addWord(words, line);
+                        }
+                    }
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.WARNING, "Could not read the chat filter word list " + fileName + ": " + e.getMessage());
+                }
+            }
+        }
+
+        this.automaton = AhoCorasick.compile(words);
+        this.enabled = !automaton.isEmpty();
+    }
+
+    /**
+     * Parses the mode
+     *
+     * @param plugin plugin
+     * @param mode   mode
+     * @return mode
+     */
+    private static Mode mode(SpaceChatPlugin plugin, String mode) {
+        try {
+            return Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            plugin.getLogger().log(Level.WARNING, "Unknown chat filter mode '" + mode + "', using replace");
+            return Mode.REPLACE;
+        }
+    }
+
+    /**
+     * Normalizes and adds a word
+     *
+     * @param words words
+     * @param word  word
+     */
+    private void addWord(Set<String> words, String word) {
+        word = word.trim();
+        if (word.isEmpty()) {
+            return;
+        }
+
+        char[] chars = new char[word.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = normalize(word.charAt(i));
+        }
+        words.add(new String(chars));
+    }
+
+    /**
+     * Normalizes a character
+     *
+     * @param c character
+     * @return normalized character
+     */
+    private char normalize(char c) {
+        if (leetspeak && c < LEETSPEAK.length && LEETSPEAK[c] != 0) {
+            return LEETSPEAK[c];
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Returns true if the filter is enabled and has any words
+     *
+     * @return enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the mode
+     *
+     * @return mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns true if the text contains any of the words
+     *
+     * @param text text
+     * @return matches
+     */
+    public boolean matches(CharSequence text) {
+        int state = AhoCorasick.ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            state = automaton.next(state, normalize(text.charAt(i)));
+
+            for (int output = automaton.firstOutput(state); output != AhoCorasick.NONE; output = automaton.nextOutput(output)) {
+                if (!wholeWords || isWholeWord(text, i - automaton.patternLength(output) + 1, i + 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the text of a message contains any of the words
+     * <p>
+     * Words may span multiple components (e.g. a gradient has a component for every character), so the automaton walks
+     * the components in the order of {@link #text(Component)}, carrying its state from one component to the next.
+     * Nothing is allocated.
+     *
+     * @param message message
+     * @return matches
+     */
+    public boolean matches(Component message) {
+        if (message instanceof TextComponent && message.children().isEmpty()) {
+            return matches(((TextComponent) message).content());
+        }
+        return matches(message, message, AhoCorasick.ROOT) == FOUND;
+    }
+
+    /**
+     * Matches the text of a component (and its children)
+     * <p>
+     * The cursor packs the position in the text of the whole message (high 32 bits) and the state of the automaton
+     * (low 32 bits), so it can be passed along without allocating
+     *
+     * @param message   the whole message, to look up the characters around a match
+     * @param component component
+     * @param cursor    cursor before the component
+     * @return the cursor after the component, or {@link #FOUND} if a word was found
+     */
+    private long matches(Component message, Component component, long cursor) {
+        if (component instanceof TextComponent) {
+            String content = ((TextComponent) component).content();
+            for (int i = 0; i < content.length() && cursor != FOUND; i++) {
+                cursor = next(message, cursor, content.charAt(i));
+            }
+        } else {
+            cursor = next(message, cursor, BOUNDARY);
+        }
+
+        List<Component> children = component.children();
+        for (int i = 0; i < children.size() && cursor != FOUND; i++) {
+            cursor = matches(message, children.get(i), cursor);
+        }
+        return cursor;
+    }
+
+    /**
+     * Feeds a single character of a message to the automaton
+     *
+     * @param message the whole message
+     * @param cursor  cursor before the character
+     * @param c       character
+     * @return the cursor after the character, or {@link #FOUND} if a word ends at the character
+     */
+    private long next(Component message, long cursor, char c) {
+        int position = (int) (cursor >>> 32);
+        int state = automaton.next((int) cursor, normalize(c));
+
+        for (int output = automaton.firstOutput(state); output != AhoCorasick.NONE; output = automaton.nextOutput(output)) {
+            if (!wholeWords || isWholeWord(message, position - automaton.patternLength(output) + 1, position + 1)) {
+                return FOUND;
+            }
+        }
+        return ((long) (position + 1) << 32) | state;
+    }
+
+    /**
+     * Replaces all words in the text with the replacement character
+     * <p>
+     * Nothing is allocated unless a word is found
+     *
+     * @param text text
+     * @return the filtered text, or the same instance if it doesn't contain any words
+     */
+    public String replace(String text) {
+        char[] replaced = replaceChars(text);
+        return replaced == null ? text : new String(replaced);
+    }
+
+    /**
+     * Replaces all words in the text with the replacement character
+     * <p>
+     * Nothing is allocated unless a word is found
+     *
+     * @param text text
+     * @return the filtered characters, or null if the text doesn't contain any words
+     */
+    public char[] replaceChars(CharSequence text) {
+        char[] replaced = null;
+        int state = AhoCorasick.ROOT;
+
+        for (int i = 0; i < text.length(); i++) {
+            state = automaton.next(state, normalize(text.charAt(i)));
+
+            for (int output = automaton.firstOutput(state); output != AhoCorasick.NONE; output = automaton.nextOutput(output)) {
+                int start = i - automaton.patternLength(output) + 1;
+                if (wholeWords && !isWholeWord(text, start, i + 1)) {
+                    continue;
+                }
+
+                if (replaced == null) {
+                    replaced = new char[text.length()];
+                    for (int j = 0; j < replaced.length; j++) {
+                        replaced[j] = text.charAt(j);
+                    }
+                }
+                // overlapping words fill some characters twice, which is cheaper than keeping track of them
+                for (int j = start; j <= i; j++) {
+                    replaced[j] = replacement;
+                }
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Returns the text of all components of a message, in reading order
+     * <p>
+     * Other components (e.g. translatable ones) are written as a single {@link #BOUNDARY}, so words never span them
+     *
+     * @param message message
+     * @return text
+     */
+    static StringBuilder text(Component message) {
+        StringBuilder builder = new StringBuilder();
+        appendText(builder, message);
+        return builder;
+    }
+
+    /**
+     * Appends the text of a component (and its children)
+     *
+     * @param builder   builder
+     * @param component component
+     */
+    private static void appendText(StringBuilder builder, Component component) {
+        if (component instanceof TextComponent) {
+            builder.append(((TextComponent) component).content());
+        } else {
+            builder.append(BOUNDARY);
+        }
+
+        for (Component child : component.children()) {
+            appendText(builder, child);
+        }
+    }
+
+    /**
+     * Returns true if the characters around a match aren't letters or digits
+     *
+     * @param text  text
+     * @param start start (inclusive)
+     * @param end   end (exclusive)
+     * @return is whole word
+     */
+    private static boolean isWholeWord(CharSequence text, int start, int end) {
+        return (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)))
+                && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)));
+    }
+
+    /**
+     * Returns true if the characters around a match in a message aren't letters or digits
+     * <p>
+     * This is only checked once a word is found, so looking up the characters doesn't have to be fast
+     *
+     * @param message message
+     * @param start   start (inclusive)
+     * @param end     end (exclusive)
+     * @return is whole word
+     */
+    private static boolean isWholeWord(Component message, int start, int end) {
+        int before = start == 0 ? -1 : charAt(message, start - 1);
+        int after = charAt(message, end);
+        return (before < 0 || !Character.isLetterOrDigit(before)) && (after < 0 || !Character.isLetterOrDigit(after));
+    }
+
+    /**
+     * Returns a character of the text of a component (and its children), see {@link #text(Component)}
+     *
+     * @param component component
+     * @param index     index
+     * @return the character, or if the index is past the component, -(the index after the component) - 1
+     */
+    private static int charAt(Component component, int index) {
+        if (component instanceof TextComponent) {
+            String content = ((TextComponent) component).content();
+            if (index < content.length()) {
+                return content.charAt(index);
+            }
+            index -= content.length();
+        } else {
+            if (index == 0) {
+                return BOUNDARY;
+            }
+            index--;
+        }
+
+        for (Component child : component.children()) {
+            int c = charAt(child, index);
+            if (c >= 0) {
+                return c;
+            }
+            index = -c - 1;
+        }
+        return -index - 1;
+    }
+}
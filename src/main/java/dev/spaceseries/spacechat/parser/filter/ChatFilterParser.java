@@ -0,0 +1,139 @@
+package dev.spaceseries.spacechat.parser.filter;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.wrapper.Pair;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.parser.Parser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChatFilterParser extends Parser<Pair<SenderCapabilities, Component>, Component> {
+
+    /**
+     * Chat filter
+     */
+    private final ChatFilter filter;
+
+    /**
+     * Chat filter parser
+     *
+     * @param plugin plugin
+     */
+    public ChatFilterParser(SpaceChatPlugin plugin) {
+        super(plugin);
+        this.filter = plugin.getChatFilter();
+    }
+
+    /**
+     * Only accepts messages of players that can't bypass the filter, if matched words are replaced
+     * <p>
+     * Messages from other servers were already filtered by the server they were sent on. Flagged messages are logged
+     * once they're sent, see {@link dev.spaceseries.spacechat.chat.ChatManager#notifyChatMessage}
+     *
+     * @param capabilitiesComponentPair pair
+     * @return accepts
+     */
+    @Override
+    public boolean accepts(Pair<SenderCapabilities, Component> capabilitiesComponentPair) {
+        SenderCapabilities capabilities = capabilitiesComponentPair.getLeft();
+        return capabilities.getPlayer() != null && filter.isEnabled() && filter.getMode() == ChatFilter.Mode.REPLACE
+                && !capabilities.canBypassChatFilter();
+    }
+
+    /**
+     * The replaced words only depend on the message and the bypass permission
+     *
+     * @return true
+     */
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    /**
+     * Parse message to component
+     *
+     * @param capabilitiesComponentPair pair
+     * @return component
+     */
+    @Override
+    public Component parse(Pair<SenderCapabilities, Component> capabilitiesComponentPair) {
+        Component message = capabilitiesComponentPair.getRight();
+
+        // if not enabled, return
+        if (!accepts(capabilitiesComponentPair)) {
+            return message;
+        }
+
+        return replace(message);
+    }
+
+    /**
+     * Replaces the filtered words in the text of the message
+     * <p>
+     * Words may span multiple components (e.g. a gradient has a component for every character), so the text of all
+     * components is matched at once. The text is only copied once the message is known to contain a filtered word, and
+     * only the components that contain (a part of) it, and their parents, are rebuilt.
+     *
+     * @param message message
+     * @return the filtered message, or the same instance if it doesn't contain any filtered words
+     */
+    private Component replace(Component message) {
+        if (message instanceof TextComponent && message.children().isEmpty()) {
+            String content = ((TextComponent) message).content();
+            String filtered = filter.replace(content);
+            return filtered != content ? ((TextComponent) message).content(filtered) : message;
+        }
+
+        if (!filter.matches(message)) {
+            return message;
+        }
+
+        char[] replaced = filter.replaceChars(ChatFilter.text(message));
+        return replaced != null ? replace(message, replaced, new int[1]) : message;
+    }
+
+    /**
+     * Copies the replaced text back into the components, in the same order as {@link ChatFilter#text(Component)}
+     *
+     * @param component component
+     * @param replaced  the replaced text of the whole message
+     * @param offset    the offset of the component in the text, moved past the component (and its children)
+     * @return the filtered component, or the same instance if none of its text was replaced
+     */
+    private static Component replace(Component component, char[] replaced, int[] offset) {
+        Component filtered = component;
+        if (component instanceof TextComponent) {
+            String content = ((TextComponent) component).content();
+            int start = offset[0];
+            offset[0] += content.length();
+
+            for (int i = 0; i < content.length(); i++) {
+                if (content.charAt(i) != replaced[start + i]) {
+                    filtered = ((TextComponent) component).content(new String(replaced, start, content.length()));
+                    break;
+                }
+            }
+        } else {
+            offset[0]++;
+        }
+
+        List<Component> children = component.children();
+        List<Component> filteredChildren = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component filteredChild = replace(child, replaced, offset);
+            if (filteredChild != child) {
+                if (filteredChildren == null) {
+                    filteredChildren = new ArrayList<>(children);
+                }
+                filteredChildren.set(i, filteredChild);
+            }
+        }
+
+        return filteredChildren != null ? filtered.children(filteredChildren) : filtered;
+    }
+}
@@ -0,0 +1,361 @@
+package dev.spaceseries.spacechat.parser.itemchat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.tr7zw.nbtapi.NBTCompound;
+import de.tr7zw.nbtapi.NBTContainer;
+import de.tr7zw.nbtapi.NBTItem;
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import me.pikamug.localelib.LocaleManager;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.nbt.api.BinaryTagHolder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the item chat component (e.g. [Enchanted Sword x1]) of items
+ * <p>
+ * The item chat settings are read once, and rendered items are cached by their contents, so the (expensive) NBT
+ * conversion only happens once for every distinct item
+ */
+public class ItemChatRenderer {
+
+    /**
+     * The tags that hold the (possibly huge) contents of an item, e.g. the items of a shulker box or the pages of a book
+     */
+    private static final List<String> CONTENT_TAGS = Arrays.asList("BlockEntityTag", "pages", "filtered_pages", "Items",
+            "ChargedProjectiles", "EntityTag", "PublicBukkitValues");
+
+    /**
+     * The tags that are kept if the item is still too large without its contents
+     */
+    private static final Set<String> SUMMARY_TAGS = new HashSet<>(Arrays.asList("display", "Enchantments", "StoredEnchantments"));
+
+    /**
+     * If item chat is enabled
+     */
+    private final boolean enabled;
+
+    /**
+     * The (non-empty) aliases that are replaced with the item
+     */
+    private final List<String> aliases;
+
+    /**
+     * The maximum amount of replacements per message, -1 if unlimited
+     */
+    private final int maxPerMessage;
+
+    /**
+     * The maximum size of the item tag in bytes, -1 if unlimited
+     */
+    private final int maxTagBytes;
+
+    /**
+     * The chat format of the item
+     */
+    private final String chat;
+
+    /**
+     * The custom lore, null if the item's own lore should be shown
+     */
+    private final List<String> customLore;
+
+    /**
+     * Locale manager
+     */
+    private final LocaleManager localeManager;
+
+    /**
+     * The rendered items, by their contents
+     */
+    private final Cache<ItemKey, Component> itemMessages;
+
+    /**
+     * Construct item chat renderer
+     *
+     * @param plugin plugin
+     */
+    public ItemChatRenderer(SpaceChatPlugin plugin) {
+        ConfigurationAdapter configuration = plugin.getSpaceChatConfig().getAdapter();
+
+        // an empty alias would match every message
+        List<String> aliases = new ArrayList<>(SpaceChatConfigKeys.ITEM_CHAT_REPLACE_ALIASES.get(configuration));
+        aliases.removeIf(String::isEmpty);
+        this.aliases = Collections.unmodifiableList(aliases);
+
+        // without any aliases there's nothing to replace
+        this.enabled = SpaceChatConfigKeys.ITEM_CHAT_ENABLED.get(configuration) && !aliases.isEmpty();
+        this.maxPerMessage = SpaceChatConfigKeys.ITEM_CHAT_MAX_PER_MESSAGE.get(configuration);
+        this.maxTagBytes = SpaceChatConfigKeys.ITEM_CHAT_MAX_TAG_BYTES.get(configuration);
+        this.chat = SpaceChatConfigKeys.ITEM_CHAT_WITH_CHAT.get(configuration);
+        this.customLore = SpaceChatConfigKeys.ITEM_CHAT_WITH_LORE_USE_CUSTOM.get(configuration) ?
+                SpaceChatConfigKeys.ITEM_CHAT_WITH_LORE_CUSTOM.get(configuration) : null;
+        this.localeManager = enabled ? new LocaleManager() : null;
+
+        this.itemMessages = Caffeine.newBuilder()
+                .maximumSize(SpaceChatConfigKeys.ITEM_CHAT_CACHE_MAXIMUM_SIZE.get(configuration))
+                .expireAfterAccess(SpaceChatConfigKeys.ITEM_CHAT_CACHE_EXPIRE_AFTER.get(configuration), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Returns true if item chat is enabled
+     *
+     * @return enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the aliases that are replaced with the item, never empty ones
+     *
+     * @return aliases
+     */
+    public List<String> getAliases() {
+        return aliases;
+    }
+
+    /**
+     * Returns the maximum amount of replacements per message
+     *
+     * @return max per message, -1 if unlimited
+     */
+    public int getMaxPerMessage() {
+        return maxPerMessage;
+    }
+
+    /**
+     * Returns true if any text of the message contains an alias
+     *
+     * @param message message
+     * @return contains alias
+     */
+    public boolean containsAlias(Component message) {
+        if (message instanceof TextComponent) {
+            String content = ((TextComponent) message).content();
+            for (String alias : aliases) {
+                if (content.contains(alias)) {
+                    return true;
+                }
+            }
+        }
+
+        for (Component child : message.children()) {
+            if (containsAlias(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the item message of an item
+     * <p>
+     * Items are cached by their contents (type, amount and tag), so a changed item is rendered again
+     *
+     * @param itemStack item
+     * @return item message
+     */
+    public Component render(ItemStack itemStack) {
+        return itemMessages.get(ItemKey.of(itemStack), key -> build(itemStack));
+    }
+
+    /**
+     * Builds the item message of an item
+     *
+     * @param itemStack item
+     * @return item message
+     */
+    private Component build(ItemStack itemStack) {
+        // get item key
+        String itemKey = localeManager.queryMaterial(itemStack.getType());
+
+        // get display name
+        Component name = itemStack.hasItemMeta() ?
+                Objects.requireNonNull(itemStack.getItemMeta()).hasDisplayName() ? LegacyComponentSerializer.legacySection().deserialize(itemStack.getItemMeta().getDisplayName()) : Component.translatable(itemKey) :
+                Component.translatable(itemKey);
+
+        // replacement config for %item% and %amount%
+        TextReplacementConfig nameReplacementConfig = TextReplacementConfig.builder()
+                .matchLiteral("%name%").replacement(Component.text().append(name))
+                .build();
+
+        TextReplacementConfig amountReplacementConfig = TextReplacementConfig.builder()
+                .matchLiteral("%amount%")
+                .replacement(Integer.toString(itemStack.getAmount()))
+                .build();
+
+        // convert lore (if exists)
+        TextComponent.Builder loreBuilder = null;
+
+        // if using custom lore, use that instead
+        if (customLore != null) {
+            loreBuilder = Component.text();
+
+            for (Iterator<String> it = customLore.iterator(); it.hasNext(); ) {
+                loreBuilder.append(LegacyComponentSerializer.legacyAmpersand().deserialize(it.next())
+                        .replaceText(nameReplacementConfig)
+                        .replaceText(amountReplacementConfig));
+                if (it.hasNext()) {
+                    loreBuilder.append(Component.newline());
+                }
+            }
+        }
+
+        // create a new component for the ACTUAL item message replacement (e.g. [Enchanted Sword x1]
+        Component itemMessage = LegacyComponentSerializer.legacyAmpersand().deserialize(chat)
+                .replaceText(nameReplacementConfig)
+                .replaceText(amountReplacementConfig)
+                // remove all decoration from parent components above
+                .decoration(TextDecoration.BOLD, TextDecoration.State.NOT_SET)
+                .decoration(TextDecoration.ITALIC, TextDecoration.State.NOT_SET)
+                .decoration(TextDecoration.OBFUSCATED, TextDecoration.State.NOT_SET)
+                .decoration(TextDecoration.STRIKETHROUGH, TextDecoration.State.NOT_SET)
+                .decoration(TextDecoration.UNDERLINED, TextDecoration.State.NOT_SET);
+
+        // create hover event
+        HoverEvent<?> hoverEvent;
+
+        if (loreBuilder != null) {
+            hoverEvent = HoverEvent.showText(loreBuilder.build());
+        } else {
+            // show item
+
+            // get namespaced key
+            NBTContainer compound = NBTItem.convertItemtoNBT(itemStack);
+            String compoundId = compound != null ? compound.getString("id") : null;
+            Key key;
+
+            if (compoundId != null) {
+                key = Key.key(compoundId);
+            } else {
+                try {
+                    Material material = itemStack.getType();
+                    NamespacedKey namespacedKey = material.getKey();
+                    key = Key.key(namespacedKey.getNamespace(), namespacedKey.getKey());
+                } catch (NoSuchMethodError ignored) {
+                    key = Key.key(itemStack.getType().name());
+                }
+            }
+
+            NBTCompound tag = compound.getCompound("tag");
+            String tagString = tag != null ? trimTag(tag) : null;
+            hoverEvent = HoverEvent.showItem(key, itemStack.getAmount(), tagString != null ? BinaryTagHolder.of(tagString) : null);
+        }
+
+        return itemMessage.hoverEvent(hoverEvent);
+    }
+
+    /**
+     * Returns the string of an item tag that fits in the maximum size
+     * <p>
+     * The tag is sent to every player (and every server), so oversized tags lose their contents first, then everything
+     * except the name, lore and enchantments
+     *
+     * @param tag tag, modified in place
+     * @return tag string, null if not even the summary fits
+     */
+    private String trimTag(NBTCompound tag) {
+        String tagString = tag.toString();
+        if (fits(tagString)) {
+            return tagString;
+        }
+
+        // remove the contents
+        for (String contentTag : CONTENT_TAGS) {
+            tag.removeKey(contentTag);
+        }
+        tagString = tag.toString();
+        if (fits(tagString)) {
+            return tagString;
+        }
+
+        // only keep the summary
+        for (String key : new ArrayList<>(tag.getKeys())) {
+            if (!SUMMARY_TAGS.contains(key)) {
+                tag.removeKey(key);
+            }
+        }
+        tagString = tag.toString();
+        return fits(tagString) ? tagString : null;
+    }
+
+    /**
+     * Returns true if a tag string fits in the maximum size
+     *
+     * @param tagString tag string
+     * @return fits
+     */
+    private boolean fits(String tagString) {
+        // a char never takes more than 3 bytes, so short strings don't need to be encoded
+        return maxTagBytes == -1 || tagString.length() <= maxTagBytes / 3
+                || tagString.getBytes(StandardCharsets.UTF_8).length <= maxTagBytes;
+    }
+
+    /**
+     * The contents of an item
+     * <p>
+     * Comparing item stacks themselves rebuilds their meta from the tag on every hash and equals, so the tag is read
+     * once and its hash is computed once
+     */
+    private static final class ItemKey {
+
+        private final Material type;
+        private final int amount;
+        private final String tag;
+        private final int hash;
+
+        private ItemKey(Material type, int amount, String tag) {
+            this.type = type;
+            this.amount = amount;
+            this.tag = tag;
+            this.hash = 31 * (31 * type.hashCode() + amount) + tag.hashCode();
+        }
+
+        /**
+         * Returns the key of an item
+         *
+         * @param itemStack item
+         * @return key
+         */
+        private static ItemKey of(ItemStack itemStack) {
+            NBTItem nbtItem = new NBTItem(itemStack);
+            return new ItemKey(itemStack.getType(), itemStack.getAmount(), nbtItem.hasNBTData() ? nbtItem.toString() : "");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ItemKey)) return false;
+            ItemKey key = (ItemKey) o;
+            return hash == key.hash && type == key.type && amount == key.amount && tag.equals(key.tag);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
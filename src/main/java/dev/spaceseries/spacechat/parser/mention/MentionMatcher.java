@@ -0,0 +1,367 @@
+package dev.spaceseries.spacechat.parser.mention;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import dev.spaceseries.spacechat.sync.ServerSyncServiceManager;
+import dev.spaceseries.spacechat.util.component.DeserializationCache;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Finds the names of online players in chat messages
+ * <p>
+ * The online names are kept in a map by their lowercase name, which is updated when players join or quit (and, when
+ * using the network, refreshed from the online players of all servers every now and then). Looking up a word is a
+ * single map lookup, so the cost of a message only depends on its length, not on the amount of online players.
+ */
+public class MentionMatcher {
+
+    /**
+     * The character a mention may (or has to) start with
+     */
+    public static final char AT = '@';
+
+    /**
+     * The maximum length of a player name
+     */
+    private static final int MAX_NAME_LENGTH = 16;
+
+    /**
+     * Plugin
+     */
+    private final SpaceChatPlugin plugin;
+
+    /**
+     * If mentions are enabled
+     */
+    private final boolean enabled;
+
+    /**
+     * If mentions have to start with an @
+     */
+    private final boolean requireAt;
+
+    /**
+     * The format of a mention
+     */
+    private final String format;
+
+    /**
+     * The sound mentioned players hear, null if none
+     */
+    private final Sound sound;
+
+    /**
+     * The volume of the sound
+     */
+    private final float volume;
+
+    /**
+     * The pitch of the sound
+     */
+    private final float pitch;
+
+    /**
+     * The online names, by their lowercase name
+     */
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * The task that refreshes the names of the network, null if disabled
+     */
+    private final BukkitTask refreshTask;
+
+    /**
+     * Construct mention matcher
+     *
+     * @param plugin plugin
+     */
+    public MentionMatcher(SpaceChatPlugin plugin) {
+        this.plugin = plugin;
+        ConfigurationAdapter configuration = plugin.getSpaceChatConfig().getAdapter();
+
+        this.enabled = SpaceChatConfigKeys.MENTIONS_ENABLED.get(configuration);
+        this.requireAt = SpaceChatConfigKeys.MENTIONS_REQUIRE_AT.get(configuration);
+        this.format = SpaceChatConfigKeys.MENTIONS_FORMAT.get(configuration);
+        this.sound = sound(plugin, SpaceChatConfigKeys.MENTIONS_SOUND.get(configuration));
+        this.volume = SpaceChatConfigKeys.MENTIONS_SOUND_VOLUME.get(configuration).floatValue();
+        this.pitch = SpaceChatConfigKeys.MENTIONS_SOUND_PITCH.get(configuration).floatValue();
+
+        if (!enabled) {
+            this.refreshTask = null;
+            return;
+        }
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            add(player.getName());
+        }
+
+        // players on other servers don't join or quit here, so refresh them every now and then
+        long interval = SpaceChatConfigKeys.MENTIONS_NETWORK_REFRESH_INTERVAL.get(configuration) * 20L;
+        if (interval > 0) {
+            this.refreshTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::refresh, interval, interval);
+        } else {
+            this.refreshTask = null;
+        }
+    }
+
+    /**
+     * Construct mention matcher without a server, names are only added through {@link #add(String)}
+     * <p>
+     * Used by the benchmarks
+     *
+     * @param requireAt if mentions have to start with an @
+     */
+    MentionMatcher(boolean requireAt) {
+        this.plugin = null;
+        this.enabled = true;
+        this.requireAt = requireAt;
+        this.format = "%name%";
+        this.sound = null;
+        this.volume = 1;
+        this.pitch = 1;
+        this.refreshTask = null;
+    }
+
+    /**
+     * Parses the sound
+     *
+     * @param plugin plugin
+     * @param sound  sound
+     * @return sound, null if none
+     */
+    private static Sound sound(SpaceChatPlugin plugin, String sound) {
+        if (sound == null || sound.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return Sound.valueOf(sound.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().log(Level.WARNING, "Unknown mention sound '" + sound + "', mentions won't play a sound");
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if mentions are enabled
+     *
+     * @return enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns true if mentions have to start with an @
+     *
+     * @return require at
+     */
+    public boolean isRequireAt() {
+        return requireAt;
+    }
+
+    /**
+     * Adds an online name
+     *
+     * @param name name
+     */
+    public void add(String name) {
+        if (enabled) {
+            names.put(name.toLowerCase(Locale.ROOT), name);
+        }
+    }
+
+    /**
+     * Removes an online name
+     *
+     * @param name name
+     */
+    public void remove(String name) {
+        if (enabled) {
+            names.remove(name.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Replaces the names with the online players of the network
+     */
+    private void refresh() {
+        // the sync services may be (re)loaded after the matcher
+        ServerSyncServiceManager serviceManager = plugin.getServerSyncServiceManager();
+        if (serviceManager == null || !serviceManager.isUsingNetwork()) {
+            return;
+        }
+
+        Collection<String> online = serviceManager.getDataService().getPlayers();
+        if (online == null) {
+            return;
+        }
+
+        Set<String> lowercase = new HashSet<>();
+        for (String name : online) {
+            lowercase.add(name.toLowerCase(Locale.ROOT));
+            names.putIfAbsent(name.toLowerCase(Locale.ROOT), name);
+        }
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            lowercase.add(player.getName().toLowerCase(Locale.ROOT));
+        }
+        names.keySet().retainAll(lowercase);
+    }
+
+    /**
+     * Returns true if a character can be part of a player name
+     *
+     * @param c character
+     * @return is name character
+     */
+    public static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * Returns true if the word at an index may be a mention
+     *
+     * @param content content
+     * @param start   start of the word
+     * @return is mention
+     */
+    public boolean isMention(String content, int start) {
+        return !requireAt || (start > 0 && content.charAt(start - 1) == AT);
+    }
+
+    /**
+     * Returns the start of the next word
+     *
+     * @param content content
+     * @param from    index to start at
+     * @return start, the length of the content if there is none
+     */
+    public static int nextWord(String content, int from) {
+        while (from < content.length() && !isNameChar(content.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Returns the end of a word
+     *
+     * @param content content
+     * @param start   start of the word
+     * @return end (exclusive)
+     */
+    public static int wordEnd(String content, int start) {
+        int end = start;
+        while (end < content.length() && isNameChar(content.charAt(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the online names that are mentioned in any text of a message
+     *
+     * @param message message
+     * @return mentioned names, in order
+     */
+    public Set<String> find(Component message) {
+        Set<String> mentioned = new LinkedHashSet<>();
+        if (enabled) {
+            find(message, mentioned);
+        }
+        return mentioned;
+    }
+
+    /**
+     * Adds the online names that are mentioned in any text of a component (and its children)
+     *
+     * @param component component
+     * @param mentioned mentioned names
+     */
+    private void find(Component component, Set<String> mentioned) {
+        if (component instanceof TextComponent) {
+            String content = ((TextComponent) component).content();
+            for (int start = nextWord(content, 0); start < content.length(); start = nextWord(content, start)) {
+                int end = wordEnd(content, start);
+                String name = isMention(content, start) ? match(content, start, end) : null;
+                if (name != null) {
+                    mentioned.add(name);
+                }
+                start = end;
+            }
+        }
+
+        for (Component child : component.children()) {
+            find(child, mentioned);
+        }
+    }
+
+    /**
+     * Returns the online name a word of a text stands for
+     *
+     * @param text  text
+     * @param start start of the word (inclusive)
+     * @param end   end of the word (exclusive)
+     * @return name, null if it isn't an online name
+     */
+    public String match(String text, int start, int end) {
+        if (end - start > MAX_NAME_LENGTH || names.isEmpty()) {
+            return null;
+        }
+        return names.get(text.substring(start, end).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the highlighted mention of a name
+     *
+     * @param name name
+     * @return highlighted mention
+     */
+    public Component highlight(String name) {
+        return DeserializationCache.legacyAmpersand(format.replace("%name%", name));
+    }
+
+    /**
+     * Plays the mention sound to the mentioned players of this server
+     *
+     * @param mentioned mentioned names
+     */
+    public void ping(Collection<String> mentioned) {
+        if (sound == null) {
+            return;
+        }
+
+        // sounds have to be played on the main thread
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            for (String name : mentioned) {
+                Player player = plugin.getServer().getPlayerExact(name);
+                if (player != null) {
+                    player.playSound(player.getLocation(), sound, volume, pitch);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops refreshing the names of the network
+     */
+    public void shutdown() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package dev.spaceseries.spacechat.parser.mention;
+
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.wrapper.Pair;
+import dev.spaceseries.spacechat.model.SenderCapabilities;
+import dev.spaceseries.spacechat.parser.Parser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class MentionParser extends Parser<Pair<SenderCapabilities, Component>, Component> {
+
+    /**
+     * Mention matcher
+     */
+    private final MentionMatcher matcher;
+
+    /**
+     * Mention parser
+     *
+     * @param plugin plugin
+     */
+    public MentionParser(SpaceChatPlugin plugin) {
+        super(plugin);
+        this.matcher = plugin.getMentionMatcher();
+    }
+
+    /**
+     * Only accepts messages of players that mention an online player
+     *
+     * @param capabilitiesComponentPair pair
+     * @return accepts
+     */
+    @Override
+    public boolean accepts(Pair<SenderCapabilities, Component> capabilitiesComponentPair) {
+        return capabilitiesComponentPair.getLeft().getPlayer() != null && matcher.isEnabled()
+                && containsMention(capabilitiesComponentPair.getRight());
+    }
+
+    /**
+     * Parse message to component
+     *
+     * @param capabilitiesComponentPair pair
+     * @return component
+     */
+    @Override
+    public Component parse(Pair<SenderCapabilities, Component> capabilitiesComponentPair) {
+        Component message = capabilitiesComponentPair.getRight();
+
+        // if not enabled, return
+        if (!accepts(capabilitiesComponentPair)) {
+            return message;
+        }
+
+        // mentioned players are pinged once the message is sent, the message may be parsed more than once
+        return highlight(message);
+    }
+
+    /**
+     * Returns true if any text of the message mentions an online player
+     *
+     * @param message message
+     * @return contains mention
+     */
+    private boolean containsMention(Component message) {
+        if (message instanceof TextComponent) {
+            String content = ((TextComponent) message).content();
+            for (int start = MentionMatcher.nextWord(content, 0); start < content.length(); start = MentionMatcher.nextWord(content, start)) {
+                int end = MentionMatcher.wordEnd(content, start);
+                if (matcher.isMention(content, start) && matcher.match(content, start, end) != null) {
+                    return true;
+                }
+                start = end;
+            }
+        }
+
+        for (Component child : message.children()) {
+            if (containsMention(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Highlights the mentions in all text of the message
+     * <p>
+     * Only the components that contain a mention (and their parents) are rebuilt
+     *
+     * @param message message
+     * @return the highlighted message, or the same instance if it doesn't contain any mentions
+     */
+    private Component highlight(Component message) {
+        Component highlighted = message;
+        List<Component> leadingChildren = Collections.emptyList();
+
+        if (message instanceof TextComponent) {
+            String content = ((TextComponent) message).content();
+            int literalStart = 0;
+
+            for (int start = MentionMatcher.nextWord(content, 0); start < content.length(); start = MentionMatcher.nextWord(content, start)) {
+                int end = MentionMatcher.wordEnd(content, start);
+                String name = matcher.isMention(content, start) ? matcher.match(content, start, end) : null;
+
+                if (name != null) {
+                    // the @ is part of the mention
+                    int mentionStart = start > 0 && content.charAt(start - 1) == MentionMatcher.AT ? start - 1 : start;
+                    if (leadingChildren.isEmpty()) {
+                        leadingChildren = new ArrayList<>();
+                        highlighted = ((TextComponent) message).content(content.substring(0, mentionStart));
+                    } else if (mentionStart > literalStart) {
+                        leadingChildren.add(Component.text(content.substring(literalStart, mentionStart)));
+                    }
+                    leadingChildren.add(matcher.highlight(name));
+                    literalStart = end;
+                }
+                start = end;
+            }
+
+            if (!leadingChildren.isEmpty() && literalStart < content.length()) {
+                leadingChildren.add(Component.text(content.substring(literalStart)));
+            }
+        }
+
+        List<Component> children = message.children();
+        List<Component> highlightedChildren = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component highlightedChild = highlight(child);
+            if (highlightedChild != child) {
+                if (highlightedChildren == null) {
+                    highlightedChildren = new ArrayList<>(children);
+                }
+                highlightedChildren.set(i, highlightedChild);
+            }
+        }
+
+        // the split content comes before the existing children
+        if (!leadingChildren.isEmpty()) {
+            leadingChildren.addAll(highlightedChildren != null ? highlightedChildren : children);
+            return highlighted.children(leadingChildren);
+        }
+        return highlightedChildren != null ? highlighted.children(highlightedChildren) : highlighted;
+    }
+}
@@ -1,5 +1,6 @@
 package dev.spaceseries.spacechat.replacer;
 
+import dev.spaceseries.spacechat.util.color.ColorCodec;
 import org.bukkit.entity.Player;
 
 public class SectionReplacer implements Replacer {
@@ -13,6 +14,6 @@ public class SectionReplacer implements Replacer {
      */
     @Override
     public String apply(String input, Player applicablePlayer) {
-        return input.replace("\u00A7", "&");
+        return ColorCodec.sectionToAmpersand(input);
     }
 }
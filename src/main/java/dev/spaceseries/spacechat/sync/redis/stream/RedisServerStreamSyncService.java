@@ -25,6 +25,7 @@ import dev.spaceseries.spacechat.sync.redis.stream.packet.chat.RedisChatPacketSe
 import dev.spaceseries.spacechat.sync.redis.stream.packet.privatechat.RedisPrivateChatPacket;
 import dev.spaceseries.spacechat.sync.redis.stream.packet.privatechat.RedisPrivateChatPacketDeserializer;
 import dev.spaceseries.spacechat.sync.redis.stream.packet.privatechat.RedisPrivateChatPacketSerializer;
+import dev.spaceseries.spacechat.util.component.DisplayNameCache;
 import net.kyori.adventure.identity.Identity;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
@@ -168,9 +169,9 @@ public class RedisServerStreamSyncService extends ServerStreamSyncService {
                 Map<String, Component> replacements = new LinkedHashMap<>();
                 replacements.put("%format%", new NormalLiveChatFormatBuilder(plugin).build(new Trio<>(null, chatPacket.getMessage(), format)));
                 replacements.put("%receivername%", Component.text(to.getName()));
-                replacements.put("%receiverdisplayname%", LegacyComponentSerializer.legacySection().deserialize(to.getDisplayName()));
+                replacements.put("%receiverdisplayname%", DisplayNameCache.getInstance().get(to));
                 replacements.put("%sendername%", Component.text(chatPacket.getSenderName()));
-                replacements.put("%senderdisplayname%", LegacyComponentSerializer.legacySection().deserialize(chatPacket.getSenderDisplayName()));
+                replacements.put("%senderdisplayname%", DisplayNameCache.getInstance().get(chatPacket.getSender(), chatPacket.getSenderDisplayName()));
                 replacements.put("%message%", LegacyComponentSerializer.legacySection().deserialize(chatPacket.getMessage()));
                 Component sentComponents = Messages.getInstance(plugin).pmSent.compile(replacements);
                 publishPrivateChat(new RedisPrivateChatPacket(Identity.nil().uuid(), "", chatPacket.getSenderDisplayName(), chatPacket.getSenderName(), "", SpaceChatConfigKeys.REDIS_SERVER_IDENTIFIER.get(plugin.getSpaceChatConfig().getAdapter()), SpaceChatConfigKeys.REDIS_SERVER_DISPLAYNAME.get(plugin.getSpaceChatConfig().getAdapter()), sentComponents, true, true));
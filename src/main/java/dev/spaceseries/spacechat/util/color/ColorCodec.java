@@ -0,0 +1,190 @@
+package dev.spaceseries.spacechat.util.color;
+
+import net.md_5.bungee.api.ChatColor;
+
+/**
+ * Converts legacy color codes in a single scan, without regular expressions
+ * <p>
+ * Every conversion returns the input itself if it doesn't contain the character it converts.
+ */
+public final class ColorCodec {
+
+    /**
+     * The section sign
+     */
+    public static final char SECTION = '§';
+
+    /**
+     * The ampersand
+     */
+    public static final char AMPERSAND = '&';
+
+    /**
+     * All valid color and format codes
+     */
+    private static final String CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+
+    /**
+     * If the server supports hex colors
+     */
+    private static final boolean HEX_SUPPORTED = isHexSupported();
+
+    private ColorCodec() {
+    }
+
+    /**
+     * Replaces every ampersand with a section sign
+     *
+     * @param input input
+     * @return converted
+     */
+    public static String ampersandToSection(String input) {
+        return input.indexOf(AMPERSAND) == -1 ? input : input.replace(AMPERSAND, SECTION);
+    }
+
+    /**
+     * Replaces every section sign with an ampersand
+     *
+     * @param input input
+     * @return converted
+     */
+    public static String sectionToAmpersand(String input) {
+        return input.indexOf(SECTION) == -1 ? input : input.replace(SECTION, AMPERSAND);
+    }
+
+    /**
+     * Appends the input to a builder, replacing every section sign with an ampersand
+     *
+     * @param builder builder
+     * @param input   input
+     */
+    public static void appendSectionToAmpersand(StringBuilder builder, String input) {
+        int from = 0;
+        int index = input.indexOf(SECTION);
+        while (index != -1) {
+            builder.append(input, from, index).append(AMPERSAND);
+            from = index + 1;
+            index = input.indexOf(SECTION, from);
+        }
+        builder.append(input, from, input.length());
+    }
+
+    /**
+     * Translates ampersand color codes (including &amp;(#rrggbb) hex colors) into section sign color codes
+     *
+     * @param input input
+     * @return translated
+     */
+    public static String translate(String input) {
+        int index = input.indexOf(AMPERSAND);
+        if (index == -1) {
+            return input;
+        }
+
+        int length = input.length();
+        StringBuilder builder = new StringBuilder(length + 16);
+        builder.append(input, 0, index);
+
+        for (int i = index; i < length; i++) {
+            char c = input.charAt(i);
+            if (c != AMPERSAND || i + 1 >= length) {
+                builder.append(c);
+                continue;
+            }
+
+            if (HEX_SUPPORTED && isHexCode(input, i)) {
+                builder.append(SECTION).append('x');
+                for (int j = i + 3; j < i + 9; j++) {
+                    builder.append(SECTION).append(input.charAt(j));
+                }
+                i += 9;
+            } else if (CODES.indexOf(input.charAt(i + 1)) != -1) {
+                builder.append(SECTION).append(Character.toLowerCase(input.charAt(++i)));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Strips all section sign color codes
+     *
+     * @param input input
+     * @return stripped
+     */
+    public static String strip(String input) {
+        int index = input.indexOf(SECTION);
+        if (index == -1) {
+            return input;
+        }
+
+        int length = input.length();
+        StringBuilder builder = new StringBuilder(length);
+        builder.append(input, 0, index);
+
+        for (int i = index; i < length; i++) {
+            char c = input.charAt(i);
+            if (c == SECTION && i + 1 < length && CODES.indexOf(input.charAt(i + 1)) != -1) {
+                i++;
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the length of the color code at the index
+     * <p>
+     * Either a legacy code (&amp;c or &sect;c) or an &amp;(#rrggbb) hex code, whether or not the server supports hex
+     * colors
+     *
+     * @param input input
+     * @param index index of the ampersand or section sign
+     * @return code length, 0 if there's no color code at the index
+     */
+    public static int codeLength(String input, int index) {
+        char c = input.charAt(index);
+        if ((c != AMPERSAND && c != SECTION) || index + 1 >= input.length()) {
+            return 0;
+        }
+        if (CODES.indexOf(input.charAt(index + 1)) != -1) {
+            return 2;
+        }
+        return c == AMPERSAND && isHexCode(input, index) ? 10 : 0;
+    }
+
+    /**
+     * Returns true if the input contains a &amp;(#rrggbb) code at the index
+     *
+     * @param input input
+     * @param index index of the ampersand
+     * @return is hex code
+     */
+    private static boolean isHexCode(String input, int index) {
+        if (index + 10 > input.length() || input.charAt(index + 1) != '(' || input.charAt(index + 2) != '#' || input.charAt(index + 9) != ')') {
+            return false;
+        }
+        for (int i = index + 3; i < index + 9; i++) {
+            if (Character.digit(input.charAt(i), 16) == -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the server supports hex colors
+     *
+     * @return hex supported
+     */
+    private static boolean isHexSupported() {
+        try {
+            ChatColor.class.getMethod("of", String.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -15,7 +15,6 @@ public class ColorUtil {
     private static final Pattern URL = Pattern.compile("^(?:(https?)://)?([-\\w_.]{2,}\\.[a-z]{2,4})(/\\S*)?$");
     public static final Pattern HEX_PATTERN = Pattern.compile("&\\(#([A-Fa-f0-9]{6})\\)");
     public static final char COLOR_CHAR = '\u00A7';
-    private static final Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + COLOR_CHAR + "[0-9A-FK-ORX]");
 
     /**
      * Converts string into baseComponents
@@ -159,19 +158,7 @@ public class ColorUtil {
      */
     @Deprecated
     public static String translateFromAmpersand(String message) {
-        try {
-            Matcher matcher = HEX_PATTERN.matcher(message);
-            StringBuffer buffer = new StringBuffer(message.length() + 32);
-
-            while (matcher.find()) {
-                String group = matcher.group(1);
-                matcher.appendReplacement(buffer, ChatColor.of("#" + group).toString());
-            }
-
-            return ChatColor.translateAlternateColorCodes('&', matcher.appendTail(buffer).toString());
-        } catch (NoSuchMethodError var4) {
-            return ChatColor.translateAlternateColorCodes('&', message);
-        }
+        return ColorCodec.translate(message);
     }
 
     /**
@@ -185,6 +172,6 @@ public class ColorUtil {
             return null;
         }
 
-        return STRIP_COLOR_PATTERN.matcher(input).replaceAll("");
+        return ColorCodec.strip(input);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package dev.spaceseries.spacechat.util.component;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Shrinks component trees without changing how they look
+ * <p>
+ * The live builders wrap every format part in extra components, and gradients produce a component for every single
+ * character. Normalizing a tree:
+ * <ul>
+ *     <li>removes style that is already inherited from the parent</li>
+ *     <li>flattens text components without content or style into their parent</li>
+ *     <li>merges adjacent text components with the same style</li>
+ *     <li>drops empty text components</li>
+ * </ul>
+ * This makes both the packets sent to players and the json published to other servers smaller.
+ */
+public final class ComponentNormalizer {
+
+    private ComponentNormalizer() {
+    }
+
+    /**
+     * Normalizes a component tree
+     * <p>
+     * The root component itself is never replaced, only its style and children
+     *
+     * @param component component
+     * @param <C>       component type
+     * @return normalized component
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends Component> C normalize(C component) {
+        return (C) normalize(component, Style.empty());
+    }
+
+    /**
+     * Normalizes a component
+     *
+     * @param component component
+     * @param inherited the style inherited from the parents
+     * @return normalized component
+     */
+    private static Component normalize(Component component, Style inherited) {
+        Style style = strip(component.style(), inherited);
+        List<Component> children = component.children();
+
+        Component normalized = style == component.style() ? component : component.style(style);
+        if (children.isEmpty()) {
+            return normalized;
+        }
+
+        // children inherit everything of this component
+        Style effective = inherited.merge(style);
+        List<Component> normalizedChildren = new ArrayList<>(children.size());
+        for (Component child : children) {
+            Component normalizedChild = normalize(child, effective);
+
+            if (isEmptyWrapper(normalizedChild)) {
+                // the wrapper adds nothing, its children can take its place
+                for (Component grandchild : normalizedChild.children()) {
+                    append(normalizedChildren, grandchild);
+                }
+            } else if (isStyledWrapper(normalizedChild)) {
+                // the wrapper only styles a single child, apply its style to the child directly
+                Component grandchild = normalizedChild.children().get(0);
+                append(normalizedChildren, grandchild.style(grandchild.style().merge(normalizedChild.style(), Style.Merge.Strategy.IF_ABSENT_ON_TARGET)));
+            } else {
+                append(normalizedChildren, normalizedChild);
+            }
+        }
+
+        return normalized.children(normalizedChildren);
+    }
+
+    /**
+     * Appends a component, merging it into the previous one if they have the same style
+     *
+     * @param components components
+     * @param component  component
+     */
+    private static void append(List<Component> components, Component component) {
+        if (component instanceof TextComponent && ((TextComponent) component).content().isEmpty() && component.children().isEmpty()) {
+            // renders nothing
+            return;
+        }
+
+        int last = components.size() - 1;
+        if (last >= 0 && component instanceof TextComponent && components.get(last) instanceof TextComponent) {
+            TextComponent previous = (TextComponent) components.get(last);
+            TextComponent text = (TextComponent) component;
+
+            // the text of the previous component comes before the text (and children) of this one
+            if (previous.children().isEmpty() && previous.style().equals(text.style())) {
+                components.set(last, text.content(previous.content() + text.content()));
+                return;
+            }
+        }
+        components.add(component);
+    }
+
+    /**
+     * Returns true if the component is a text component without content or style
+     *
+     * @param component component
+     * @return is empty wrapper
+     */
+    private static boolean isEmptyWrapper(Component component) {
+        return component instanceof TextComponent && ((TextComponent) component).content().isEmpty() && component.style().isEmpty();
+    }
+
+    /**
+     * Returns true if the component is a text component without content that only has a single child
+     *
+     * @param component component
+     * @return is styled wrapper
+     */
+    private static boolean isStyledWrapper(Component component) {
+        return component instanceof TextComponent && ((TextComponent) component).content().isEmpty() && component.children().size() == 1;
+    }
+
+    /**
+     * Removes everything from a style that is already inherited
+     *
+     * @param style     style
+     * @param inherited the inherited style
+     * @return the stripped style, or the same instance if nothing is inherited
+     */
+    private static Style strip(Style style, Style inherited) {
+        if (style.isEmpty() || inherited.isEmpty()) {
+            return style;
+        }
+
+        Style.Builder builder = null;
+
+        if (style.color() != null && style.color().equals(inherited.color())) {
+            builder = style.toBuilder().color(null);
+        }
+        for (TextDecoration decoration : TextDecoration.values()) {
+            TextDecoration.State state = style.decoration(decoration);
+            if (state != TextDecoration.State.NOT_SET && state == inherited.decoration(decoration)) {
+                builder = (builder != null ? builder : style.toBuilder()).decoration(decoration, TextDecoration.State.NOT_SET);
+            }
+        }
+        if (style.font() != null && style.font().equals(inherited.font())) {
+            builder = (builder != null ? builder : style.toBuilder()).font(null);
+        }
+        if (style.clickEvent() != null && style.clickEvent().equals(inherited.clickEvent())) {
+            builder = (builder != null ? builder : style.toBuilder()).clickEvent(null);
+        }
+        if (style.hoverEvent() != null && style.hoverEvent().equals(inherited.hoverEvent())) {
+            builder = (builder != null ? builder : style.toBuilder()).hoverEvent(null);
+        }
+        if (style.insertion() != null && Objects.equals(style.insertion(), inherited.insertion())) {
+            builder = (builder != null ? builder : style.toBuilder()).insertion(null);
+        }
+
+        return builder != null ? builder.build() : style;
+    }
+}
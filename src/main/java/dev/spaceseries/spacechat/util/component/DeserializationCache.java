@@ -0,0 +1,158 @@
+package dev.spaceseries.spacechat.util.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.spaceseries.spacechat.SpaceChatPlugin;
+import dev.spaceseries.spacechat.api.config.generic.adapter.ConfigurationAdapter;
+import dev.spaceseries.spacechat.config.SpaceChatConfigKeys;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.function.Function;
+
+/**
+ * Caches deserialized format strings (after their placeholders have been replaced)
+ * <p>
+ * Most format parts end up as the exact same string for every message of a player, and components are immutable,
+ * so the same component can safely be shared
+ */
+public class DeserializationCache {
+
+    /**
+     * Instance of this class
+     */
+    private static DeserializationCache instance;
+
+    /**
+     * Initializes the cache (again), using the current configuration
+     *
+     * @param plugin plugin
+     */
+    public static void init(SpaceChatPlugin plugin) {
+        instance = new DeserializationCache(plugin);
+    }
+
+    /**
+     * Returns the instance of the cache
+     *
+     * @return cache, null if not initialized
+     */
+    public static DeserializationCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Deserializes legacy ampersand text, going through the cache if it's initialized
+     *
+     * @param text text
+     * @return component
+     */
+    public static Component legacyAmpersand(String text) {
+        return deserialize(Type.LEGACY_AMPERSAND, text);
+    }
+
+    /**
+     * Deserializes a MiniMessage string, going through the cache if it's initialized
+     *
+     * @param text text
+     * @return component
+     */
+    public static Component miniMessage(String text) {
+        return deserialize(Type.MINI_MESSAGE, text);
+    }
+
+    /**
+     * Deserializes text, going through the cache if it's initialized
+     *
+     * @param type type
+     * @param text text
+     * @return component
+     */
+    private static Component deserialize(Type type, String text) {
+        DeserializationCache cache = instance;
+        if (cache == null || cache.cache == null) {
+            return type.deserializer.apply(text);
+        }
+        return cache.cache.get(new Key(type, text), key -> key.type.deserializer.apply(key.text));
+    }
+
+    /**
+     * The deserialized components, null if the cache is disabled
+     */
+    private final Cache<Key, Component> cache;
+
+    /**
+     * Construct deserialization cache
+     *
+     * @param plugin plugin
+     */
+    private DeserializationCache(SpaceChatPlugin plugin) {
+        ConfigurationAdapter config = plugin.getSpaceChatConfig().getAdapter();
+
+        this.cache = SpaceChatConfigKeys.DESERIALIZATION_CACHE_ENABLED.get(config) ? Caffeine.newBuilder()
+                .maximumSize(SpaceChatConfigKeys.DESERIALIZATION_CACHE_MAXIMUM_SIZE.get(config))
+                .recordStats()
+                .build() : null;
+    }
+
+    /**
+     * Returns the statistics of the cache
+     *
+     * @return stats
+     */
+    public CacheStats getStats() {
+        return cache != null ? cache.stats() : CacheStats.empty();
+    }
+
+    /**
+     * Returns the (approximate) amount of cached components
+     *
+     * @return size
+     */
+    public long getSize() {
+        return cache != null ? cache.estimatedSize() : 0;
+    }
+
+    /**
+     * The supported deserializers
+     */
+    private enum Type {
+        LEGACY_AMPERSAND(text -> LegacyComponentSerializer.legacyAmpersand().deserialize(text)),
+        MINI_MESSAGE(text -> MiniMessage.miniMessage().deserialize(text));
+
+        private final Function<String, Component> deserializer;
+
+        Type(Function<String, Component> deserializer) {
+            this.deserializer = deserializer;
+        }
+    }
+
+    /**
+     * A cached string
+     */
+    private static final class Key {
+
+        private final Type type;
+        private final String text;
+
+        private Key(Type type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return type == key.type && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + text.hashCode();
+        }
+    }
+}
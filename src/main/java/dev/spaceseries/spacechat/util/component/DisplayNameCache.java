@@ -0,0 +1,93 @@
+package dev.spaceseries.spacechat.util.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the display name components of players
+ * <p>
+ * A display name is only deserialized again when the raw (legacy) display name of the player changes
+ */
+public final class DisplayNameCache {
+
+    /**
+     * Instance of this class
+     */
+    private static final DisplayNameCache INSTANCE = new DisplayNameCache();
+
+    /**
+     * Returns the instance of the cache
+     *
+     * @return cache
+     */
+    public static DisplayNameCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * The display names, by player (local players and players of other servers)
+     */
+    private final Cache<UUID, DisplayName> displayNames = Caffeine.newBuilder()
+            .maximumSize(5000)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+
+    private DisplayNameCache() {
+    }
+
+    /**
+     * Returns the display name component of a player
+     *
+     * @param player player
+     * @return display name
+     */
+    public Component get(Player player) {
+        return get(player.getUniqueId(), player.getDisplayName());
+    }
+
+    /**
+     * Returns the display name component of a player
+     *
+     * @param uuid uuid of the player
+     * @param raw  the raw (legacy) display name
+     * @return display name
+     */
+    public Component get(UUID uuid, String raw) {
+        DisplayName displayName = displayNames.getIfPresent(uuid);
+        if (displayName == null || !displayName.raw.equals(raw)) {
+            // the display name changed (or was never seen)
+            displayName = new DisplayName(raw, LegacyComponentSerializer.legacySection().deserialize(raw));
+            displayNames.put(uuid, displayName);
+        }
+        return displayName.component;
+    }
+
+    /**
+     * Forgets the display name of a player
+     *
+     * @param uuid uuid of the player
+     */
+    public void invalidate(UUID uuid) {
+        displayNames.invalidate(uuid);
+    }
+
+    /**
+     * A deserialized display name
+     */
+    private static final class DisplayName {
+
+        private final String raw;
+        private final Component component;
+
+        private DisplayName(String raw, Component component) {
+            this.raw = raw;
+            this.component = component;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package dev.spaceseries.spacechat.util.component;
+
+import dev.spaceseries.spacechat.util.color.ColorCodec;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.KeybindComponent;
+import net.kyori.adventure.text.ScoreComponent;
+import net.kyori.adventure.text.SelectorComponent;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+
+/**
+ * Flattens components into plain text in a single pass
+ * <p>
+ * Color codes (&amp;, &sect; and &amp;(#rrggbb)) that are left in the text of the components are stripped while
+ * writing, so there's no need to serialize to legacy text and strip it afterwards.
+ */
+public final class PlainTextFlattener {
+
+    /**
+     * The reusable builder of every thread
+     */
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    /**
+     * The maximum capacity of a builder that is kept for reuse
+     */
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+
+    private PlainTextFlattener() {
+    }
+
+    /**
+     * Flattens a component into plain text
+     *
+     * @param component component
+     * @return plain text
+     */
+    public static String flatten(Component component) {
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+
+        append(builder, component);
+        String text = builder.toString();
+
+        // don't keep huge builders around
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            BUILDER.remove();
+        }
+        return text;
+    }
+
+    /**
+     * Appends the plain text of a component (and its children) to a builder
+     *
+     * @param builder   builder
+     * @param component component
+     */
+    public static void append(StringBuilder builder, Component component) {
+        if (component instanceof TextComponent) {
+            appendStripped(builder, ((TextComponent) component).content());
+        } else if (component instanceof TranslatableComponent) {
+            builder.append(((TranslatableComponent) component).key());
+        } else if (component instanceof KeybindComponent) {
+            builder.append(((KeybindComponent) component).keybind());
+        } else if (component instanceof ScoreComponent) {
+            String value = ((ScoreComponent) component).value();
+            if (value != null) {
+                builder.append(value);
+            }
+        } else if (component instanceof SelectorComponent) {
+            builder.append(((SelectorComponent) component).pattern());
+        }
+
+        for (Component child : component.children()) {
+            append(builder, child);
+        }
+    }
+
+    /**
+     * Appends text without its color codes
+     *
+     * @param builder builder
+     * @param text    text
+     */
+    private static void appendStripped(StringBuilder builder, String text) {
+        int length = text.length();
+        int from = 0;
+
+        for (int i = 0; i < length; i++) {
+            int codeLength = ColorCodec.codeLength(text, i);
+            if (codeLength > 0) {
+                builder.append(text, from, i);
+                i += codeLength - 1;
+                from = i + 1;
+            }
+        }
+
+        builder.append(text, from, length);
+    }
+}
@@ -0,0 +1,228 @@
+package dev.spaceseries.spacechat.util.platform;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.kyori.adventure.identity.Identity;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.UUID;
+
+/**
+ * Access to the Adventure API of servers that implement it natively (Paper)
+ * <p>
+ * SpaceChat ships its own, relocated, copy of Adventure, so its components can't be handed to the server as they
+ * are. They are converted through their JSON instead, which both copies understand. The package name of the native
+ * API is built at runtime, so it isn't relocated along with our own copy.
+ */
+public final class NativeAdventure {
+
+    /**
+     * The package of the native Adventure API
+     */
+    private static final String NATIVE_PACKAGE = String.join(".", "net", "kyori", "adventure");
+
+    /**
+     * The native component class, null if not available
+     */
+    private static final Class<?> COMPONENT_CLASS;
+
+    /**
+     * The native audience class, null if not available
+     */
+    private static final Class<?> AUDIENCE_CLASS;
+
+    /**
+     * Deserializes a json string into a native component
+     */
+    private static final MethodHandle DESERIALIZE_JSON;
+
+    /**
+     * Serializes a native component into plain text
+     */
+    private static final MethodHandle SERIALIZE_PLAIN;
+
+    /**
+     * Creates a native identity of a UUID
+     */
+    private static final MethodHandle IDENTITY;
+
+    /**
+     * The native nil identity
+     */
+    private static final Object NIL_IDENTITY;
+
+    /**
+     * Sends a native component to a native audience, with the identity of its source
+     * Null if the server doesn't support identities anymore
+     */
+    private static final MethodHandle SEND_IDENTIFIED_MESSAGE;
+
+    /**
+     * Sends a native component to a native audience
+     */
+    private static final MethodHandle SEND_MESSAGE;
+
+    /**
+     * The converted components, by (the identity of) their component
+     * <p>
+     * The same component is usually sent to many players at once, so it's only converted once
+     */
+    private static final Cache<Component, Object> CONVERTED = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(512)
+            .build();
+
+    static {
+        Class<?> componentClass = null;
+        Class<?> audienceClass = null;
+        MethodHandle deserializeJson = null;
+        MethodHandle serializePlain = null;
+        MethodHandle identity = null;
+        Object nilIdentity = null;
+        MethodHandle sendIdentifiedMessage = null;
+        MethodHandle sendMessage = null;
+
+        try {
+            ClassLoader classLoader = Bukkit.class.getClassLoader();
+            componentClass = Class.forName(NATIVE_PACKAGE + ".text.Component", false, classLoader);
+            audienceClass = Class.forName(NATIVE_PACKAGE + ".audience.Audience", false, classLoader);
+
+            // only if players are audiences themselves
+            if (audienceClass.isAssignableFrom(Player.class)) {
+                Class<?> serializerClass = Class.forName(NATIVE_PACKAGE + ".text.serializer.ComponentSerializer", false, classLoader);
+                Method deserialize = serializerClass.getMethod("deserialize", Object.class);
+                Method serialize = serializerClass.getMethod("serialize", componentClass);
+
+                Object gson = Class.forName(NATIVE_PACKAGE + ".text.serializer.gson.GsonComponentSerializer", true, classLoader)
+                        .getMethod("gson").invoke(null);
+                Object plainText = Class.forName(NATIVE_PACKAGE + ".text.serializer.plain.PlainTextComponentSerializer", true, classLoader)
+                        .getMethod("plainText").invoke(null);
+
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                deserializeJson = lookup.unreflect(deserialize).bindTo(gson);
+                serializePlain = lookup.unreflect(serialize).bindTo(plainText);
+                sendMessage = lookup.unreflect(audienceClass.getMethod("sendMessage", componentClass));
+
+                // identities may be removed from newer versions
+                try {
+                    Class<?> identityClass = Class.forName(NATIVE_PACKAGE + ".identity.Identity", true, classLoader);
+                    identity = lookup.unreflect(identityClass.getMethod("identity", UUID.class));
+                    nilIdentity = identityClass.getMethod("nil").invoke(null);
+                    sendIdentifiedMessage = lookup.unreflect(audienceClass.getMethod("sendMessage", identityClass, componentClass));
+                } catch (ReflectiveOperationException ignored) {
+                    identity = null;
+                    sendIdentifiedMessage = null;
+                }
+            }
+        } catch (ReflectiveOperationException | LinkageError ignored) {
+            // not available, e.g. on Spigot
+        }
+
+        boolean available = deserializeJson != null && serializePlain != null && sendMessage != null;
+        COMPONENT_CLASS = available ? componentClass : null;
+        AUDIENCE_CLASS = available ? audienceClass : null;
+        DESERIALIZE_JSON = deserializeJson;
+        SERIALIZE_PLAIN = serializePlain;
+        IDENTITY = identity;
+        NIL_IDENTITY = nilIdentity;
+        SEND_IDENTIFIED_MESSAGE = identity != null ? sendIdentifiedMessage : null;
+        SEND_MESSAGE = sendMessage;
+    }
+
+    private NativeAdventure() {
+    }
+
+    /**
+     * Returns true if the server implements Adventure natively
+     *
+     * @return is available
+     */
+    public static boolean isAvailable() {
+        return COMPONENT_CLASS != null;
+    }
+
+    /**
+     * Returns the native component class
+     *
+     * @return component class, null if not available
+     */
+    public static Class<?> getComponentClass() {
+        return COMPONENT_CLASS;
+    }
+
+    /**
+     * Returns the native audience class
+     *
+     * @return audience class, null if not available
+     */
+    public static Class<?> getAudienceClass() {
+        return AUDIENCE_CLASS;
+    }
+
+    /**
+     * Converts a component into a native component
+     * <p>
+     * Recently converted components are remembered, so sending the same component to many players only converts it once
+     *
+     * @param component component
+     * @return native component
+     */
+    public static Object toNative(Component component) {
+        return CONVERTED.get(component, NativeAdventure::convert);
+    }
+
+    /**
+     * Converts a component into a native component
+     *
+     * @param component component
+     * @return native component
+     */
+    private static Object convert(Component component) {
+        try {
+            return DESERIALIZE_JSON.invoke(GsonComponentSerializer.gson().serialize(component));
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Could not convert component", throwable);
+        }
+    }
+
+    /**
+     * Sends a component to a player, directly through the server's own Adventure implementation
+     *
+     * @param from      the identity of the source
+     * @param component component
+     * @param to        to
+     */
+    public static void sendMessage(Identity from, Component component, Player to) {
+        Object nativeComponent = toNative(component);
+        try {
+            if (SEND_IDENTIFIED_MESSAGE != null) {
+                Object identity = from == Identity.nil() ? NIL_IDENTITY : IDENTITY.invoke(from.uuid());
+                SEND_IDENTIFIED_MESSAGE.invoke(to, identity, nativeComponent);
+            } else {
+                SEND_MESSAGE.invoke(to, nativeComponent);
+            }
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Could not send component", throwable);
+        }
+    }
+
+    /**
+     * Serializes a native component into plain text
+     *
+     * @param component native component
+     * @return plain text
+     */
+    public static String toPlainText(Object component) {
+        try {
+            return (String) SERIALIZE_PLAIN.invoke(component);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException("Could not serialize component", throwable);
+        }
+    }
+}